@@ -1,14 +1,21 @@
 package com.adeo.mcp.server.demo.service;
 
 import com.adeo.mcp.server.demo.service.dto.OrderDto;
+import com.adeo.mcp.server.demo.service.dto.OrderPageDto;
+import com.adeo.mcp.server.demo.service.dto.OrderSearchHitDto;
+import com.adeo.mcp.server.demo.service.dto.OrderStatsDto;
+import com.adeo.mcp.server.demo.service.dto.OrderTransitionResultDto;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
 public class OrderAppService {
@@ -16,13 +23,39 @@ public class OrderAppService {
     private final RestTemplate restTemplate = new RestTemplate();
     private final String BASE_URL = "http://localhost:8081/orders";
 
-    public List<OrderDto> getOrders() {
-        OrderDto[] orders = restTemplate.getForObject(BASE_URL, OrderDto[].class);
-        if (orders == null) {
+    public List<OrderSearchHitDto> searchOrdersByCustomer(String customer, Integer limit) {
+        String url = UriComponentsBuilder.fromUriString(BASE_URL + "/search")
+                .queryParam("customer", customer)
+                .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                .toUriString();
+
+        OrderSearchHitDto[] hits = restTemplate.getForObject(url, OrderSearchHitDto[].class);
+        if (hits == null) {
             return List.of();
         }
 
-        return Arrays.asList(orders);
+        return Arrays.asList(hits);
+    }
+
+    public OrderStatsDto getOrderStats() {
+        return restTemplate.getForObject(BASE_URL + "/stats", OrderStatsDto.class);
+    }
+
+    public OrderPageDto getOrders(String status, String customerName, LocalDate orderDateFrom, LocalDate orderDateTo,
+                                  Long after, Integer limit) {
+        String url = UriComponentsBuilder.fromUriString(BASE_URL)
+                .queryParamIfPresent("status", Optional.ofNullable(status))
+                .queryParamIfPresent("customerName", Optional.ofNullable(customerName))
+                .queryParamIfPresent("orderDateFrom", Optional.ofNullable(orderDateFrom))
+                .queryParamIfPresent("orderDateTo", Optional.ofNullable(orderDateTo))
+                .queryParamIfPresent("after", Optional.ofNullable(after))
+                .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                .toUriString();
+
+        ResponseEntity<OrderDto[]> response = restTemplate.getForEntity(url, OrderDto[].class);
+        List<OrderDto> orders = response.getBody() == null ? List.of() : Arrays.asList(response.getBody());
+        String nextCursor = response.getHeaders().getFirst("X-Next-Cursor");
+        return new OrderPageDto(orders, nextCursor == null ? null : Long.valueOf(nextCursor));
     }
 
     public OrderDto getOrder(Long orderId) {
@@ -72,4 +105,15 @@ public class OrderAppService {
             return null;
         }
     }
+
+    public List<OrderTransitionResultDto> moveOrdersForward(List<Long> orderIds) {
+        String url = BASE_URL + "/next";
+
+        OrderTransitionResultDto[] results = restTemplate.postForObject(url, orderIds, OrderTransitionResultDto[].class);
+        if (results == null) {
+            return List.of();
+        }
+
+        return Arrays.asList(results);
+    }
 }
@@ -51,9 +51,20 @@ public class PaymentAppService {
             throw e;
         }
     }    public PaymentDto createPayment(PaymentDto paymentDto) {
+        return createPayment(paymentDto, null);
+    }
+
+    /**
+     * @param idempotencyKey when not null, sent as Idempotency-Key so that a retry with the same key does not
+     *                       create a second payment
+     */
+    public PaymentDto createPayment(PaymentDto paymentDto, String idempotencyKey) {
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
+            if (idempotencyKey != null) {
+                headers.set("Idempotency-Key", idempotencyKey);
+            }
             HttpEntity<PaymentDto> request = new HttpEntity<>(paymentDto, headers);
 
             ResponseEntity<PaymentDto> response = restTemplate.postForEntity(BASE_URL, request, PaymentDto.class);
@@ -0,0 +1,39 @@
+package com.adeo.mcp.server.demo.service.dto;
+
+import java.util.List;
+
+/**
+ * One page of orders, with the cursor to request the next one.
+ */
+public class OrderPageDto {
+
+    private List<OrderDto> orders;
+    private Long nextCursor;
+
+    public OrderPageDto() {
+        // Default constructor
+    }
+
+    public OrderPageDto(List<OrderDto> orders, Long nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderDto> getOrders() {
+        return orders;
+    }
+
+    public OrderPageDto setOrders(List<OrderDto> orders) {
+        this.orders = orders;
+        return this;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public OrderPageDto setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+}
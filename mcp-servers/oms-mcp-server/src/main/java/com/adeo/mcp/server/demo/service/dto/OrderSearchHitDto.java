@@ -0,0 +1,32 @@
+package com.adeo.mcp.server.demo.service.dto;
+
+/**
+ * An order found by customer name.
+ */
+public class OrderSearchHitDto {
+
+    private Long orderId;
+    private String customerName;
+
+    public OrderSearchHitDto() {
+        // Default constructor
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderSearchHitDto setOrderId(Long orderId) {
+        this.orderId = orderId;
+        return this;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public OrderSearchHitDto setCustomerName(String customerName) {
+        this.customerName = customerName;
+        return this;
+    }
+}
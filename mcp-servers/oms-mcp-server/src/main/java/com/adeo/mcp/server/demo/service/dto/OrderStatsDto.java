@@ -0,0 +1,46 @@
+package com.adeo.mcp.server.demo.service.dto;
+
+import com.adeo.mcp.server.demo.service.dto.enums.OrderStatus;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Order counts by status and revenue by day.
+ */
+public class OrderStatsDto {
+
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+    private Map<LocalDate, Double> revenueByDay;
+
+    public OrderStatsDto() {
+        // Default constructor
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public OrderStatsDto setTotalOrders(long totalOrders) {
+        this.totalOrders = totalOrders;
+        return this;
+    }
+
+    public Map<OrderStatus, Long> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+
+    public OrderStatsDto setOrdersByStatus(Map<OrderStatus, Long> ordersByStatus) {
+        this.ordersByStatus = ordersByStatus;
+        return this;
+    }
+
+    public Map<LocalDate, Double> getRevenueByDay() {
+        return revenueByDay;
+    }
+
+    public OrderStatsDto setRevenueByDay(Map<LocalDate, Double> revenueByDay) {
+        this.revenueByDay = revenueByDay;
+        return this;
+    }
+}
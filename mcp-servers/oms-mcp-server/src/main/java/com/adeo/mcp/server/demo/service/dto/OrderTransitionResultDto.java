@@ -0,0 +1,54 @@
+package com.adeo.mcp.server.demo.service.dto;
+
+import com.adeo.mcp.server.demo.service.dto.enums.OrderStatus;
+
+/**
+ * Outcome of moving one order forward as part of a bulk request.
+ */
+public class OrderTransitionResultDto {
+
+    private Long orderId;
+    private boolean success;
+    private OrderStatus status;
+    private String reason;
+
+    public OrderTransitionResultDto() {
+        // Default constructor
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderTransitionResultDto setOrderId(Long orderId) {
+        this.orderId = orderId;
+        return this;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public OrderTransitionResultDto setSuccess(boolean success) {
+        this.success = success;
+        return this;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public OrderTransitionResultDto setStatus(OrderStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public OrderTransitionResultDto setReason(String reason) {
+        this.reason = reason;
+        return this;
+    }
+}
@@ -5,5 +5,6 @@ public enum OrderStatus {
     PENDING,
     SHIPPED,
     DELIVERED,
-    CANCELLED;
+    CANCELLED,
+    FINISHED;
 }
@@ -2,6 +2,11 @@ package com.adeo.mcp.server.demo.tools;
 
 import com.adeo.mcp.server.demo.service.OrderAppService;
 import com.adeo.mcp.server.demo.service.dto.OrderDto;
+import com.adeo.mcp.server.demo.service.dto.OrderPageDto;
+import com.adeo.mcp.server.demo.service.dto.OrderSearchHitDto;
+import com.adeo.mcp.server.demo.service.dto.OrderStatsDto;
+import com.adeo.mcp.server.demo.service.dto.OrderTransitionResultDto;
+import java.time.LocalDate;
 import java.util.List;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
@@ -16,12 +21,33 @@ public class OrderAppTools {
         this.orderAppService = orderAppService;
     }
 
-    @Tool(description = "Returns a list of customers orders.")
-    List<OrderDto> getOrders() {
-        List<OrderDto> orders = orderAppService.getOrders();
+    @Tool(description = "Returns a page of customers orders, ordered by ID. Filters are optional and combined. "
+            + "When nextCursor is not null, call again with 'after' set to it to get the next page.")
+    OrderPageDto getOrders(
+            @ToolParam(description = "Only return orders with this status (CREATED, PENDING, SHIPPED, DELIVERED, FINISHED, CANCELLED)", required = false) String status,
+            @ToolParam(description = "Only return orders whose customer name starts with this value (case-sensitive)", required = false) String customerName,
+            @ToolParam(description = "Only return orders placed on or after this date (format: yyyy-MM-dd)", required = false) LocalDate orderDateFrom,
+            @ToolParam(description = "Only return orders placed on or before this date (format: yyyy-MM-dd)", required = false) LocalDate orderDateTo,
+            @ToolParam(description = "The nextCursor returned with the previous page, omit for the first page", required = false) Long after,
+            @ToolParam(description = "Maximum number of orders to return", required = false) Integer limit) {
+        OrderPageDto orders = orderAppService.getOrders(status, customerName, orderDateFrom, orderDateTo, after, limit);
         return orders;
     }
 
+    @Tool(description = "Returns the number of orders in each status and the revenue per order date. "
+            + "Prefer it to listing orders when only counts or totals are needed.")
+    OrderStatsDto getOrderStats() {
+        return orderAppService.getOrderStats();
+    }
+
+    @Tool(description = "Finds orders by customer name: matches the start of any word of the name, ignoring case and accents "
+            + "(e.g. \"jean\" finds \"Jean Bonbeur\"). Returns order IDs and customer names; use getOrder for details.")
+    List<OrderSearchHitDto> searchOrdersByCustomer(
+            @ToolParam(description = "The start of the customer first name, last name or full name") String customer,
+            @ToolParam(description = "Maximum number of orders to return", required = false) Integer limit) {
+        return orderAppService.searchOrdersByCustomer(customer, limit);
+    }
+
     @Tool(description = "Retrieves a specific order by its ID.")
     OrderDto getOrder(@ToolParam(description = "The unique identifier of the order to retrieve") Long orderId) {
         OrderDto order = orderAppService.getOrder(orderId);
@@ -33,4 +59,10 @@ public class OrderAppTools {
         OrderDto order = orderAppService.moveOrderForward(orderId);
         return order;
     }
+
+    @Tool(description = "Move forward several orders at once to their next step. Returns, for each order, whether it was moved and its status, or why it was rejected.")
+    List<OrderTransitionResultDto> moveForwardOrders(@ToolParam(description = "The unique identifiers of the orders to move forward") List<Long> orderIds) {
+        List<OrderTransitionResultDto> results = orderAppService.moveOrdersForward(orderIds);
+        return results;
+    }
 }
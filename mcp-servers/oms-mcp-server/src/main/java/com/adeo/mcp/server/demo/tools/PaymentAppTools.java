@@ -12,6 +12,9 @@ import org.springframework.stereotype.Service;
 @Service
 public class PaymentAppTools {
 
+    private static final String IDEMPOTENCY_KEY_DESCRIPTION = "Optional unique key for this payment creation. "
+            + "When retrying after a timeout or error, pass the same key again so the payment is not created twice.";
+
     private final PaymentAppService paymentAppService;
 
     public PaymentAppTools(PaymentAppService paymentAppService) {
@@ -35,13 +38,14 @@ public class PaymentAppTools {
             @ToolParam(description = "The order ID this payment is for") Long orderId,
             @ToolParam(description = "The name of the customer making the payment") String customerName,
             @ToolParam(description = "The payment date (format: yyyy-MM-dd), defaults to today if not provided") LocalDate paymentDate,
-            @ToolParam(description = "The total amount of the payment") double totalAmount,            @ToolParam(description = "The payment status (PENDING, COMPLETED, FAILED)") PaymentStatus status) {
+            @ToolParam(description = "The total amount of the payment") double totalAmount,            @ToolParam(description = "The payment status (PENDING, COMPLETED, FAILED)") PaymentStatus status,
+            @ToolParam(description = IDEMPOTENCY_KEY_DESCRIPTION, required = false) String idempotencyKey) {
 
         // Set default payment date to today if not provided
         LocalDate actualPaymentDate = paymentDate != null ? paymentDate : LocalDate.now();
         
         PaymentDto paymentDto = new PaymentDto(null, orderId, customerName, actualPaymentDate, totalAmount, status);
-        PaymentDto createdPayment = paymentAppService.createPayment(paymentDto);
+        PaymentDto createdPayment = paymentAppService.createPayment(paymentDto, idempotencyKey);
         
         return createdPayment;
     }
@@ -49,13 +53,14 @@ public class PaymentAppTools {
     @Tool(description = "Creates a new pending payment with minimal details.")
     PaymentDto createPendingPayment(
             @ToolParam(description = "The order ID this payment is for") Long orderId,
-            @ToolParam(description = "The name of the customer making the payment") String customerName,            @ToolParam(description = "The total amount of the payment") double totalAmount) {
+            @ToolParam(description = "The name of the customer making the payment") String customerName,            @ToolParam(description = "The total amount of the payment") double totalAmount,
+            @ToolParam(description = IDEMPOTENCY_KEY_DESCRIPTION, required = false) String idempotencyKey) {
 
         PaymentDto paymentDto = new PaymentDto(null, orderId, customerName, LocalDate.now(), totalAmount, PaymentStatus.PENDING);
-        PaymentDto createdPayment = paymentAppService.createPayment(paymentDto);
+        PaymentDto createdPayment = paymentAppService.createPayment(paymentDto, idempotencyKey);
         
         return createdPayment;
-    }    @Tool(description = "Retries a failed payment by its ID.")
+    }    @Tool(description = "Retries a failed payment by its ID. The payment goes back to PENDING and is processed again in the background.")
     PaymentDto retryPayment(@ToolParam(description = "The unique identifier of the payment to retry") Long paymentId) {
         PaymentDto retriedPayment = paymentAppService.retryPayment(paymentId);
         return retriedPayment;
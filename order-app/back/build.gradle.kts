@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.5"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.adeo.demo"
@@ -21,6 +22,8 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.apache.httpcomponents.client5:httpclient5")
+    implementation("io.github.resilience4j:resilience4j-spring-boot3:2.2.0")
     runtimeOnly("com.h2database:h2")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -34,6 +37,49 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark", "performance")
+    }
+}
+
+// Insert throughput benchmarks, kept out of the regular build: ./gradlew benchmark [-Dbenchmark.orders=100000]
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    systemProperty("benchmark.orders", System.getProperty("benchmark.orders", "100000"))
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+// Throughput and p99 of the order endpoints against an in-process payment-app stand-in: ./gradlew performanceTest
+tasks.register<Test>("performanceTest") {
+    description = "Runs the performance tests."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("performance")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+// Microbenchmarks in src/jmh: ./gradlew jmh
+jmh {
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+}
+
 tasks.jar {
     manifest {
         attributes("Main-Class" to "com.adeo.demo.order.backend.OrderBackendApplication")
@@ -0,0 +1,98 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.OrderBackendApplication;
+import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Time and allocation (with the gc profiler) of listing 10k orders as {@link OrderDto}: loading managed entities
+ * then copying them, versus the {@link OrderSummary} projection used by {@link OrderRepository#findPage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderListingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(OrderBackendApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run("--logging.level.root=WARN");
+        orderRepository = context.getBean(OrderRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        transactionTemplate.executeWithoutResult(status -> orderRepository.insertAll(IntStream.range(0, ROWS)
+                .mapToObj(OrderListingBenchmark::newOrder)
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderDto> managedEntities() {
+        // The commit flush is where dirty checking compares every loaded entity with its snapshot
+        return transactionTemplate.execute(status -> {
+            List<Order> orders = entityManager.createQuery("select o from Order o order by o.id", Order.class)
+                    .setMaxResults(ROWS)
+                    .getResultList();
+            List<OrderDto> dtos = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                dtos.add(new OrderDto(order.getId(), order.getCustomerName(), order.getOrderDate(),
+                        order.getStatus(), order.getNumberOfItems(), Money.toAmount(order.getTotalAmountCents()), null, false));
+            }
+            return dtos;
+        });
+    }
+
+    @Benchmark
+    public List<OrderDto> summaryProjection() {
+        List<OrderSummary> orders = orderRepository.findPage(OrderFilter.none(), null, ROWS);
+        List<OrderDto> dtos = new ArrayList<>(orders.size());
+        for (OrderSummary order : orders) {
+            dtos.add(new OrderDto(order.id(), order.customerName(), order.orderDate(),
+                    order.status(), order.numberOfItems(), Money.toAmount(order.totalAmountCents()), null, false));
+        }
+        return dtos;
+    }
+
+    private static Order newOrder(int i) {
+        Order order = new Order();
+        order.setCustomerName("Customer " + i);
+        order.setOrderDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+        order.setTotalAmountCents(1000 + i % 1000 * 100);
+        order.setNumberOfItems(1 + i % 10);
+        order.setStatus(OrderStatus.CREATED);
+        return order;
+    }
+}
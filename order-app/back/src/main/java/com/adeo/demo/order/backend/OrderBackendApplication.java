@@ -3,9 +3,11 @@ package com.adeo.demo.order.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.adeo.demo.order.backend.persistence")
+@EnableScheduling
 public class OrderBackendApplication {
 
 	public static void main(String[] args) {
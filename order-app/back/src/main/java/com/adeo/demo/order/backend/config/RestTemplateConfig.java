@@ -1,14 +1,119 @@
 package com.adeo.demo.order.backend.config;
 
+import com.adeo.demo.order.backend.services.RequestDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
+    private static final String POOL_NAME = "payment-service";
+
+    /**
+     * Connection pool used for all calls to payment-app. Pool usage (leased, pending and available connections)
+     * and lease wait time are published under {@code httpcomponents.httpclient.pool.*}.
+     */
+    @Bean(destroyMethod = "close")
+    public InstrumentedConnectionManager paymentServiceConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${payment.service.http.max-connections:200}") int maxConnections,
+            @Value("${payment.service.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${payment.service.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${payment.service.http.read-timeout:3s}") Duration readTimeout,
+            @Value("${payment.service.http.connection-ttl:5m}") Duration connectionTtl) {
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(meterRegistry, POOL_NAME);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(connectionTtl))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public RequestConfig paymentServiceRequestConfig(
+            @Value("${payment.service.http.pool-acquire-timeout:500ms}") Duration poolAcquireTimeout,
+            @Value("${payment.service.http.read-timeout:3s}") Duration readTimeout) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient paymentServiceHttpClient(
+            InstrumentedConnectionManager paymentServiceConnectionManager,
+            RequestConfig paymentServiceRequestConfig,
+            @Value("${payment.service.http.keep-alive:30s}") Duration keepAlive) {
+        return HttpClients.custom()
+                .setConnectionManager(paymentServiceConnectionManager)
+                .setDefaultRequestConfig(paymentServiceRequestConfig)
+                // Reuse connections for at most keep-alive, and close the ones idle for that long in the background
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    /**
+     * Within a request having a {@link RequestDeadline}, each call waits for a pooled connection and for the
+     * response no longer than the time left, and forwards it to payment-app in the
+     * {@value RequestDeadline#TIMEOUT_HEADER} header.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient paymentServiceHttpClient,
+                                     RequestConfig paymentServiceRequestConfig) {
+        return restTemplateBuilder
+                .requestFactory(() -> {
+                    HttpComponentsClientHttpRequestFactory requestFactory =
+                            new HttpComponentsClientHttpRequestFactory(paymentServiceHttpClient);
+                    requestFactory.setHttpContextFactory((method, uri) -> deadlineContext(paymentServiceRequestConfig));
+                    return requestFactory;
+                })
+                .additionalInterceptors((request, body, execution) -> {
+                    Duration remaining = RequestDeadline.remaining();
+                    if (remaining != null) {
+                        request.getHeaders().set(RequestDeadline.TIMEOUT_HEADER, String.valueOf(remaining.toMillis()));
+                    }
+                    return execution.execute(request, body);
+                })
+                .build();
+    }
+
+    private static HttpContext deadlineContext(RequestConfig defaults) {
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining == null) {
+            return null;
+        }
+        // A zero timeout would mean no timeout at all
+        Timeout timeLeft = Timeout.ofMilliseconds(Math.max(1, remaining.toMillis()));
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaults)
+                .setConnectionRequestTimeout(min(defaults.getConnectionRequestTimeout(), timeLeft))
+                .setResponseTimeout(min(defaults.getResponseTimeout(), timeLeft))
+                .build());
+        return context;
+    }
+
+    private static Timeout min(Timeout configured, Timeout timeLeft) {
+        return configured == null || configured.compareTo(timeLeft) > 0 ? timeLeft : configured;
     }
 }
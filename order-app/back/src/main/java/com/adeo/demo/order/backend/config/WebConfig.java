@@ -0,0 +1,24 @@
+package com.adeo.demo.order.backend.config;
+
+import com.adeo.demo.order.backend.web.RequestDeadlineInterceptor;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final Duration orderRequestDeadline;
+
+    public WebConfig(@Value("${orders.request.deadline:2s}") Duration orderRequestDeadline) {
+        this.orderRequestDeadline = orderRequestDeadline;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestDeadlineInterceptor(orderRequestDeadline))
+                .addPathPatterns("/orders", "/orders/**");
+    }
+}
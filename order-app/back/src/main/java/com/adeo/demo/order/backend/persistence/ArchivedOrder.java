@@ -0,0 +1,56 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A FINISHED or CANCELLED order moved out of the orders table by the archiver. It keeps its original id.
+ */
+@Entity
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    private String customerName;
+
+    private LocalDate orderDate;
+
+    // Exact amount in cents, see Money
+    private long totalAmountCents;
+
+    private Integer numberOfItems;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private Instant archivedAt;
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public LocalDate getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }
+
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
+
+    public Integer getNumberOfItems() { return numberOfItems; }
+    public void setNumberOfItems(Integer numberOfItems) { this.numberOfItems = numberOfItems; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Instant getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(Instant archivedAt) { this.archivedAt = archivedAt; }
+}
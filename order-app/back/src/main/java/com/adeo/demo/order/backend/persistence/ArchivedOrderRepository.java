@@ -0,0 +1,66 @@
+package com.adeo.demo.order.backend.persistence;
+
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /**
+     * Copy orders from the orders table to the archive. Must be called within the transaction that deletes them
+     * from the orders table.
+     *
+     * @param ids        The ids of the orders to copy
+     * @param archivedAt The archival time to record
+     * @return The number of orders copied
+     */
+    @Modifying
+    @Query(value = "insert into orders_archive "
+            + "(id, customer_name, order_date, total_amount_cents, number_of_items, status, archived_at) "
+            + "select id, customer_name, order_date, total_amount_cents, number_of_items, status, :archivedAt "
+            + "from orders where id in (:ids)", nativeQuery = true)
+    int copyFromOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") Instant archivedAt);
+
+    /**
+     * Count the archived orders of each status.
+     *
+     * @return One entry per status having at least one archived order
+     */
+    @Query("select new com.adeo.demo.order.backend.persistence.OrderStatusCount(a.status, count(a)) "
+            + "from ArchivedOrder a group by a.status")
+    List<OrderStatusCount> countByStatus();
+
+    /**
+     * Sum the total amount of the archived orders of each day.
+     *
+     * @return One entry per order date having at least one archived order
+     */
+    @Query("select new com.adeo.demo.order.backend.persistence.OrderDailyRevenue(a.orderDate, sum(a.totalAmountCents)) "
+            + "from ArchivedOrder a group by a.orderDate")
+    List<OrderDailyRevenue> sumRevenueByDay();
+
+    /**
+     * Stream every archived order, ordered by id. Must be called within a transaction, and the stream closed
+     * after use.
+     *
+     * @return Stream of all archived orders, ordered by id
+     */
+    @Query("select new com.adeo.demo.order.backend.persistence.OrderSummary("
+            + "a.id, a.customerName, a.orderDate, a.status, a.numberOfItems, a.totalAmountCents) "
+            + "from ArchivedOrder a order by a.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderSummary> streamAllOrderById();
+}
@@ -7,25 +7,35 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (see schema.sql): ids are reserved 50 at a time, which lets Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", initialValue = 100, allocationSize = 50)
     private Long id;
 
     private String customerName;
 
-    private LocalDate orderDate;    private Double totalAmount;
+    private LocalDate orderDate;
+
+    // Exact amount in cents, see Money
+    private long totalAmountCents;
 
     private Integer numberOfItems;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    @Version
+    private Long version;
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -34,12 +44,17 @@ public class Order {
     public void setCustomerName(String customerName) { this.customerName = customerName; }
 
     public LocalDate getOrderDate() { return orderDate; }
-    public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }    public Double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+    public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }
+
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
 
     public Integer getNumberOfItems() { return numberOfItems; }
     public void setNumberOfItems(Integer numberOfItems) { this.numberOfItems = numberOfItems; }
 
     public OrderStatus getStatus() { return status; }
     public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
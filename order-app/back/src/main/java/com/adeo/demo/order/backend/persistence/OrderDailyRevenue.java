@@ -0,0 +1,9 @@
+package com.adeo.demo.order.backend.persistence;
+
+import java.time.LocalDate;
+
+/**
+ * Sum of the total amount of the orders of a day, in cents.
+ */
+public record OrderDailyRevenue(LocalDate orderDate, long revenueCents) {
+}
@@ -0,0 +1,19 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import java.time.LocalDate;
+
+/**
+ * Optional criteria applied when listing orders. A null field does not filter.
+ *
+ * @param status         exact order status
+ * @param customerName   prefix of the customer name (case-sensitive, so that it can use the customer name index)
+ * @param orderDateFrom  inclusive lower bound of the order date
+ * @param orderDateTo    inclusive upper bound of the order date
+ */
+public record OrderFilter(OrderStatus status, String customerName, LocalDate orderDateFrom, LocalDate orderDateTo) {
+
+    public static OrderFilter none() {
+        return new OrderFilter(null, null, null, null);
+    }
+}
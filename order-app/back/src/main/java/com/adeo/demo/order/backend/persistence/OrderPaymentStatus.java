@@ -0,0 +1,39 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Local copy of the latest payment status of an order, maintained from payment-app notifications.
+ */
+@Entity
+@Table(name = "order_payment_status")
+public class OrderPaymentStatus {
+    @Id
+    private Long orderId;
+
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus status;
+
+    private Instant changedAt;
+
+    // Getters and setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public PaymentStatus getStatus() { return status; }
+    public void setStatus(PaymentStatus status) { this.status = status; }
+
+    public Instant getChangedAt() { return changedAt; }
+    public void setChangedAt(Instant changedAt) { this.changedAt = changedAt; }
+}
@@ -0,0 +1,8 @@
+package com.adeo.demo.order.backend.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderPaymentStatusRepository extends JpaRepository<OrderPaymentStatus, Long> {
+}
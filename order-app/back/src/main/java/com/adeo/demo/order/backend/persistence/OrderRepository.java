@@ -1,8 +1,90 @@
 package com.adeo.demo.order.backend.persistence;
 
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    /**
+     * Move an order to a new status, only if it is still in the expected status.
+     *
+     * @param id       The id of the order
+     * @param expected The status the order was read with
+     * @param next     The new status
+     * @return 1 if the order was updated, 0 if it was deleted or its status changed in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :next, o.version = o.version + 1 where o.id = :id and o.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") OrderStatus expected, @Param("next") OrderStatus next);
+
+    /**
+     * Count the orders of each status.
+     *
+     * @return One entry per status having at least one order
+     */
+    @Query("select new com.adeo.demo.order.backend.persistence.OrderStatusCount(o.status, count(o)) "
+            + "from Order o group by o.status")
+    List<OrderStatusCount> countByStatus();
+
+    /**
+     * Sum the total amount of the orders of each day.
+     *
+     * @return One entry per order date having at least one order
+     */
+    @Query("select new com.adeo.demo.order.backend.persistence.OrderDailyRevenue(o.orderDate, sum(o.totalAmountCents)) "
+            + "from Order o group by o.orderDate")
+    List<OrderDailyRevenue> sumRevenueByDay();
+
+    /**
+     * Stream every order, ordered by id. Rows are fetched from the database in chunks and are not kept in the
+     * persistence context, so memory does not grow with the table. Must be called within a transaction, and the
+     * stream closed after use.
+     *
+     * @return Stream of all orders, ordered by id
+     */
+    @Query("select new com.adeo.demo.order.backend.persistence.OrderSummary("
+            + "o.id, o.customerName, o.orderDate, o.status, o.numberOfItems, o.totalAmountCents) "
+            + "from Order o order by o.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OrderSummary> streamAllOrderById();
+
+    /**
+     * Find orders in one of the given statuses, dated before the given day.
+     *
+     * @param statuses The statuses to look for
+     * @param before   Only orders dated strictly before this day are returned
+     * @param limit    The maximum number of ids to return
+     * @return Ids of the matching orders, lowest first
+     */
+    @Query("select o.id from Order o where o.status in :statuses and o.orderDate < :before order by o.id")
+    List<Long> findIdsByStatusInAndOrderDateBefore(@Param("statuses") Collection<OrderStatus> statuses,
+                                                   @Param("before") LocalDate before, Limit limit);
+
+    /**
+     * Delete orders by id, without loading them.
+     *
+     * @param ids The ids of the orders to delete
+     * @return The number of orders deleted
+     */
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
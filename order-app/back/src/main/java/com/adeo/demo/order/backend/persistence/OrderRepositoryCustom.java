@@ -0,0 +1,36 @@
+package com.adeo.demo.order.backend.persistence;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Find one page of orders matching the filter, using keyset pagination on the order id.
+     * Only the criteria actually set are added to the query, so each one can be served by its index.
+     * Rows are read straight into {@link OrderSummary} records, which are not tracked by the persistence context.
+     *
+     * @param filter  The criteria to apply
+     * @param afterId The id of the last order of the previous page, or null for the first page
+     * @param limit   The maximum number of orders to return
+     * @return Orders with an id greater than {@code afterId}, ordered by id
+     */
+    List<OrderSummary> findPage(OrderFilter filter, Long afterId, int limit);
+
+    /**
+     * Insert new orders in JDBC batches. The persistence context is flushed and cleared after each batch,
+     * so the returned orders are detached and memory stays bounded whatever the number of orders.
+     *
+     * @param orders The orders to insert, without id
+     * @return The inserted orders, with their generated id
+     */
+    List<Order> insertAll(List<Order> orders);
+
+    /**
+     * Apply conditional status changes as a single JDBC batch, bumping the version of each order changed.
+     * Must be called within a transaction, which holds the rows changed until it ends.
+     *
+     * @param changes The changes to apply
+     * @return For each change, in order, 1 if the order was updated, 0 if it was deleted or its status changed
+     */
+    int[] updateStatuses(List<OrderStatusChange> changes);
+}
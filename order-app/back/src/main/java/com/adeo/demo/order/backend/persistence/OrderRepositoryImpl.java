@@ -0,0 +1,106 @@
+package com.adeo.demo.order.backend.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    public List<OrderSummary> findPage(OrderFilter filter, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummary> query = cb.createQuery(OrderSummary.class);
+        Root<Order> order = query.from(Order.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(order.<Long>get("id"), afterId));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(order.get("status"), filter.status()));
+        }
+        if (filter.customerName() != null && !filter.customerName().isEmpty()) {
+            predicates.add(cb.like(order.<String>get("customerName"), escapeLike(filter.customerName()) + "%", '\\'));
+        }
+        if (filter.orderDateFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.<LocalDate>get("orderDate"), filter.orderDateFrom()));
+        }
+        if (filter.orderDateTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(order.<LocalDate>get("orderDate"), filter.orderDateTo()));
+        }
+
+        query.select(cb.construct(OrderSummary.class,
+                        order.get("id"),
+                        order.get("customerName"),
+                        order.get("orderDate"),
+                        order.get("status"),
+                        order.get("numberOfItems"),
+                        order.get("totalAmountCents")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(order.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    @Override
+    public List<Order> insertAll(List<Order> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            entityManager.persist(orders.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return orders;
+    }
+
+    @Override
+    public int[] updateStatuses(List<OrderStatusChange> changes) {
+        return jdbcTemplate.batchUpdate(
+                "update orders set status = ?, version = version + 1 where id = ? and status = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        OrderStatusChange change = changes.get(i);
+                        statement.setString(1, change.next().name());
+                        statement.setLong(2, change.orderId());
+                        statement.setString(3, change.expected().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return changes.size();
+                    }
+                });
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
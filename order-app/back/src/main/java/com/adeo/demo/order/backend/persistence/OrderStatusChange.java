@@ -0,0 +1,9 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+
+/**
+ * Conditional status change of an order: applied only if the order is still in the {@code expected} status.
+ */
+public record OrderStatusChange(Long orderId, OrderStatus expected, OrderStatus next) {
+}
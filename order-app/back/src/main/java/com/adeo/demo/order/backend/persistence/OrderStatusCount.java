@@ -0,0 +1,9 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+
+/**
+ * Number of orders in a status.
+ */
+public record OrderStatusCount(OrderStatus status, Long count) {
+}
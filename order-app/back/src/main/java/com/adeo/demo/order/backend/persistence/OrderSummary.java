@@ -0,0 +1,11 @@
+package com.adeo.demo.order.backend.persistence;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of an order, built directly by list queries instead of loading managed {@link Order} entities.
+ */
+public record OrderSummary(Long id, String customerName, LocalDate orderDate, OrderStatus status,
+                           Integer numberOfItems, long totalAmountCents) {
+}
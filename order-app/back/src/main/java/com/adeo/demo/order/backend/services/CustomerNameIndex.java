@@ -0,0 +1,130 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.persistence.ArchivedOrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderSummary;
+import com.adeo.demo.order.backend.web.dto.OrderSearchHitDto;
+import jakarta.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory prefix index of the customer names of all orders, archived ones included.
+ * <p>
+ * Names are normalized (lower case, accents removed, spaces collapsed) and indexed from the start of each word,
+ * so "jean", "bonb" and "jean b" all find "Jean Bonbeur". Keys are kept in a sorted concurrent set: a search is a
+ * seek to the prefix followed by a scan of the matches only, whatever the number of orders. The index is loaded
+ * at startup, once schema.sql and data.sql have run, and updated after each order creation or deletion commits.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class CustomerNameIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Entry::key).thenComparingLong(Entry::orderId));
+
+    public CustomerNameIndex(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void rebuild() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderSummary> orders = orderRepository.streamAllOrderById();
+                 Stream<OrderSummary> archivedOrders = archivedOrderRepository.streamAllOrderById()) {
+                Stream.concat(orders, archivedOrders).forEach(order -> index(order.id(), order.customerName()));
+            }
+        });
+    }
+
+    public void orderCreated(Long orderId, String customerName) {
+        AfterCommit.run(() -> index(orderId, customerName));
+    }
+
+    public void orderDeleted(Long orderId, String customerName) {
+        AfterCommit.run(() -> {
+            for (String key : keys(customerName)) {
+                entries.remove(new Entry(key, orderId, customerName));
+            }
+        });
+    }
+
+    /**
+     * @return up to {@code limit} orders whose customer name has a word starting with the prefix, ordered by
+     * matched name then order id
+     */
+    public List<OrderSearchHitDto> search(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        List<OrderSearchHitDto> hits = new ArrayList<>();
+        if (normalizedPrefix.isEmpty()) {
+            return hits;
+        }
+        Set<Long> seen = new HashSet<>();
+        for (Entry entry : entries.tailSet(new Entry(normalizedPrefix, Long.MIN_VALUE, null), true)) {
+            if (!entry.key().startsWith(normalizedPrefix) || hits.size() >= limit) {
+                break;
+            }
+            // An order matching on several words is returned once
+            if (seen.add(entry.orderId())) {
+                hits.add(new OrderSearchHitDto(entry.orderId(), entry.customerName()));
+            }
+        }
+        return hits;
+    }
+
+    private void index(Long orderId, String customerName) {
+        for (String key : keys(customerName)) {
+            entries.add(new Entry(key, orderId, customerName));
+        }
+    }
+
+    /**
+     * @return the normalized name from the start of each of its words
+     */
+    private static List<String> keys(String customerName) {
+        String name = normalize(customerName);
+        List<String> keys = new ArrayList<>();
+        if (name.isEmpty()) {
+            return keys;
+        }
+        keys.add(name);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            keys.add(name.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String withoutAccents = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(withoutAccents.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private record Entry(String key, long orderId, String customerName) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.persistence.ArchivedOrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves FINISHED and CANCELLED orders older than {@code orders.archive.min-age} from the orders table to
+ * {@code orders_archive}, so that the orders table only grows with the orders still in progress.
+ * <p>
+ * Orders are moved by batches of {@code orders.archive.batch-size}, each in its own transaction, so that a run
+ * never holds locks nor a transaction for long. Archived orders are still served by {@link OrderService#getOrder}.
+ */
+@Service
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+    private static final List<OrderStatus> ARCHIVABLE_STATUSES = List.of(OrderStatus.FINISHED, OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderVersions orderVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+
+    public OrderArchiver(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+                         OrderVersions orderVersions, PlatformTransactionManager transactionManager,
+                         @Value("${orders.archive.min-age:90d}") Duration minAge,
+                         @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderVersions = orderVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:-}")
+    public void scheduledRun() {
+        int archived = archive();
+        logger.info("Archived {} orders", archived);
+    }
+
+    /**
+     * Archives every eligible order, one batch at a time.
+     *
+     * @return the number of orders archived
+     */
+    public int archive() {
+        LocalDate before = LocalDate.now().minusDays(minAge.toDays());
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(before));
+            archived += moved;
+        } while (moved == batchSize);
+        return archived;
+    }
+
+    private int archiveBatch(LocalDate before) {
+        List<Long> ids = orderRepository.findIdsByStatusInAndOrderDateBefore(ARCHIVABLE_STATUSES, before,
+                Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyFromOrders(ids, Instant.now());
+        orderRepository.deleteByIds(ids);
+        orderVersions.collectionChanged();
+        return ids.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.adeo.demo.order.backend.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an order kept being modified concurrently and could not be moved to its next step.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderConflictException extends RuntimeException {
+
+    public OrderConflictException(Long orderId, int attempts) {
+        super("Order " + orderId + " was modified concurrently, gave up after " + attempts + " attempts");
+    }
+}
@@ -0,0 +1,53 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.persistence.Order;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Memoizes the order and payment reads made while serving one request, so that each order is loaded from
+ * the database and each payment status is fetched from payment-app at most once, however many steps of
+ * the request need them.
+ * <p>
+ * A context is created per {@link OrderService} call and must not be shared between requests.
+ */
+class OrderLookupContext {
+
+    private final OrderRepository orderRepository;
+    private final Function<Long, PaymentStatusSnapshot> paymentStatusLoader;
+    private final Function<List<Long>, Map<Long, PaymentStatusSnapshot>> bulkPaymentStatusLoader;
+
+    private final Map<Long, Optional<Order>> orders = new HashMap<>();
+    private final Map<Long, PaymentStatusSnapshot> paymentStatuses = new HashMap<>();
+
+    OrderLookupContext(OrderRepository orderRepository,
+                       Function<Long, PaymentStatusSnapshot> paymentStatusLoader,
+                       Function<List<Long>, Map<Long, PaymentStatusSnapshot>> bulkPaymentStatusLoader) {
+        this.orderRepository = orderRepository;
+        this.paymentStatusLoader = paymentStatusLoader;
+        this.bulkPaymentStatusLoader = bulkPaymentStatusLoader;
+    }
+
+    Optional<Order> order(Long orderId) {
+        return orders.computeIfAbsent(orderId, orderRepository::findById);
+    }
+
+    PaymentStatusSnapshot paymentStatus(Long orderId) {
+        return paymentStatuses.computeIfAbsent(orderId, paymentStatusLoader);
+    }
+
+    /**
+     * Fetches, in one go, the payment statuses of the given orders that are not known yet.
+     */
+    void preloadPaymentStatuses(Collection<Long> orderIds) {
+        List<Long> missing = orderIds.stream().filter(orderId -> !paymentStatuses.containsKey(orderId)).toList();
+        if (!missing.isEmpty()) {
+            paymentStatuses.putAll(bulkPaymentStatusLoader.apply(missing));
+        }
+    }
+}
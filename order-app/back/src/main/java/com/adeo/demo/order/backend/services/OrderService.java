@@ -1,14 +1,30 @@
 package com.adeo.demo.order.backend.services;
 
+import com.adeo.demo.order.backend.persistence.ArchivedOrder;
+import com.adeo.demo.order.backend.persistence.ArchivedOrderRepository;
+import com.adeo.demo.order.backend.persistence.Money;
 import com.adeo.demo.order.backend.persistence.Order;
+import com.adeo.demo.order.backend.persistence.OrderFilter;
 import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderStatusChange;
+import com.adeo.demo.order.backend.persistence.OrderSummary;
 import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.OrderPageDto;
+import com.adeo.demo.order.backend.web.dto.OrderSearchHitDto;
+import com.adeo.demo.order.backend.web.dto.OrderStatsDto;
+import com.adeo.demo.order.backend.web.dto.OrderTransitionResultDto;
 import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
 import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,45 +32,224 @@ import org.springframework.transaction.annotation.Transactional;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
     private final PaymentServiceClient paymentServiceClient;
+    private final PaymentStatusProjectionService paymentStatusProjectionService;
+    private final OrderStatistics orderStatistics;
+    private final OrderVersions orderVersions;
+    private final CustomerNameIndex customerNameIndex;
+    private final PaymentLookupMode paymentLookupMode;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int transitionMaxAttempts;
+    private final int defaultSearchLimit;
+    private final int maxSearchLimit;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, PaymentServiceClient paymentServiceClient) {
+    public OrderService(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+                        PaymentServiceClient paymentServiceClient,
+                        PaymentStatusProjectionService paymentStatusProjectionService,
+                        OrderStatistics orderStatistics, OrderVersions orderVersions,
+                        CustomerNameIndex customerNameIndex,
+                        @Value("${payment.service.lookup-mode:bulk}") PaymentLookupMode paymentLookupMode,
+                        @Value("${orders.page.default-size:50}") int defaultPageSize,
+                        @Value("${orders.page.max-size:500}") int maxPageSize,
+                        @Value("${orders.transition.max-attempts:3}") int transitionMaxAttempts,
+                        @Value("${orders.search.default-limit:20}") int defaultSearchLimit,
+                        @Value("${orders.search.max-limit:100}") int maxSearchLimit) {
         this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
         this.paymentServiceClient = paymentServiceClient;
+        this.paymentStatusProjectionService = paymentStatusProjectionService;
+        this.orderStatistics = orderStatistics;
+        this.orderVersions = orderVersions;
+        this.customerNameIndex = customerNameIndex;
+        this.paymentLookupMode = paymentLookupMode;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.transitionMaxAttempts = transitionMaxAttempts;
+        this.defaultSearchLimit = defaultSearchLimit;
+        this.maxSearchLimit = maxSearchLimit;
     }
 
     @Transactional
     public OrderDto createOrder(OrderDto orderDto) {
         Order order = toNewEntity(orderDto);
         Order saved = orderRepository.save(order);
+        orderStatistics.orderCreated(saved);
+        customerNameIndex.orderCreated(saved.getId(), saved.getCustomerName());
+        orderVersions.collectionChanged();
         return toDto(saved);
     }
 
+    /**
+     * Creates many orders in a single transaction, inserted as JDBC batches.
+     *
+     * @return the ids of the created orders, in request order
+     */
+    @Transactional
+    public List<Long> createOrders(List<OrderDto> orderDtos) {
+        List<Order> orders = orderDtos.stream().map(this::toNewEntity).toList();
+        orderRepository.insertAll(orders);
+        orders.forEach(orderStatistics::orderCreated);
+        orders.forEach(order -> customerNameIndex.orderCreated(order.getId(), order.getCustomerName()));
+        orderVersions.collectionChanged();
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    /**
+     * Finds orders, archived ones included, by the start of any word of their customer name, ignoring case and
+     * accents. Served from memory, without reading the orders.
+     *
+     * @param limit requested number of matches, defaulted and capped by the orders.search.* settings
+     */
+    public List<OrderSearchHitDto> searchByCustomerName(String customerName, Integer limit) {
+        int maxHits = limit == null || limit <= 0 ? defaultSearchLimit : Math.min(limit, maxSearchLimit);
+        return customerNameIndex.search(customerName, maxHits);
+    }
+
+    /**
+     * Returns the order counts by status and the revenue by day, without reading the orders.
+     */
+    public OrderStatsDto getStats() {
+        return orderStatistics.snapshot();
+    }
+
+    /**
+     * Returns the order, looked up in the archive when it is no longer in the orders table.
+     */
     public OrderDto getOrder(Long orderId) {
-        Optional<Order> order = orderRepository.findById(orderId);
-        return order.map(this::toDto).orElse(null);
+        OrderLookupContext lookups = newLookupContext();
+        Optional<OrderDto> order = lookups.order(orderId).map(o -> toDto(o, lookups));
+        if (order.isPresent()) {
+            return order.get();
+        }
+        return archivedOrderRepository.findById(orderId)
+                .map(archived -> toDto(toSummary(archived), getPaymentStatus(orderId)))
+                .orElse(null);
     }
 
-    public List<OrderDto> getAllOrders() {
-        return orderRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
+    /**
+     * Returns one page of orders matching the filter, ordered by id.
+     *
+     * @param afterId cursor returned with the previous page, or null for the first page
+     * @param limit   requested page size, defaulted and capped by the orders.page.* settings
+     */
+    public OrderPageDto getOrders(OrderFilter filter, Long afterId, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        // Fetch one extra row to know whether there is a next page
+        List<OrderSummary> orders = orderRepository.findPage(filter, afterId, pageSize + 1);
+        Long nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            nextCursor = orders.get(pageSize - 1).id();
+        }
+
+        OrderLookupContext lookups = newLookupContext();
+        lookups.preloadPaymentStatuses(orders.stream().map(OrderSummary::id).toList());
+        List<OrderDto> page = orders.stream()
+                .map(order -> toDto(order, lookups.paymentStatus(order.id())))
+                .collect(Collectors.toList());
+        return new OrderPageDto(page, nextCursor);
     }
 
-    @Transactional
+    /**
+     * Moves the order to its next step without holding any lock: the new status is written only if the order
+     * is still in the status it was read with. When another call moved it first, the order is read again and
+     * the transition retried, up to orders.transition.max-attempts times.
+     *
+     * @throws OrderConflictException if the order kept changing concurrently
+     */
     public OrderDto nextOrderStep(Long orderId) {
-        Optional<Order> existing = orderRepository.findById(orderId);
-        if (existing.isPresent()) {
+        // The transition is gated on the payment status, so decide it on a fresh read from payment-app: neither the
+        // cache nor the projection, which lags behind payment-app until its notifications are delivered
+        paymentServiceClient.evictPaymentStatus(orderId);
+        PaymentStatusSnapshot paymentStatus = null;
+        for (int attempt = 1; attempt <= transitionMaxAttempts; attempt++) {
+            Optional<Order> existing = orderRepository.findById(orderId);
+            if (existing.isEmpty()) {
+                return null;
+            }
             Order currentOrder = existing.get();
-            currentOrder.setStatus(getNextOrderStatus(orderId));
-            Order saved = orderRepository.save(currentOrder);
-            return toDto(saved);
+            if (paymentStatus == null) {
+                paymentStatus = paymentServiceClient.getPaymentStatusByOrderId(orderId);
+            }
+            OrderStatus nextStatus = getNextOrderStatus(currentOrder.getStatus(), confirmedPaymentStatus(paymentStatus));
+            if (orderRepository.updateStatus(orderId, currentOrder.getStatus(), nextStatus) == 1) {
+                orderStatistics.orderMoved(currentOrder.getStatus(), nextStatus);
+                orderVersions.orderChanged(orderId);
+                currentOrder.setStatus(nextStatus);
+                return toDto(currentOrder, paymentStatus);
+            }
         }
-        return null;
-    }    private OrderStatus getNextOrderStatus(Long orderId) {
-        OrderDto orderDto = getOrder(orderId);
-        OrderStatus currentStatus = orderDto.getStatus();
-        PaymentStatus paymentStatus = getPaymentStatus(orderId);
-        
+        throw new OrderConflictException(orderId, transitionMaxAttempts);
+    }
+
+    /**
+     * Moves many orders to their next step in one transaction. Orders and payment statuses are loaded in bulk,
+     * each transition is validated with the same rules as {@link #nextOrderStep(Long)}, and all of them are written
+     * as one JDBC batch of the same conditional update, so that an order moved concurrently is reported as rejected
+     * instead of failing the whole batch.
+     *
+     * @return one result per distinct order id, in request order
+     */
+    @Transactional
+    public List<OrderTransitionResultDto> nextOrderSteps(List<Long> orderIds) {
+        List<Long> ids = orderIds.stream().distinct().toList();
+        // As for single transitions, the payment statuses are read fresh from payment-app
+        ids.forEach(paymentServiceClient::evictPaymentStatus);
+        Map<Long, Order> orders = orderRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        Map<Long, PaymentStatusSnapshot> paymentStatuses =
+                paymentServiceClient.getPaymentStatusesByOrderIds(orders.keySet());
+
+        Map<Long, OrderTransitionResultDto> results = new HashMap<>();
+        List<OrderStatusChange> changes = new ArrayList<>();
+        for (Long orderId : ids) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                results.put(orderId, OrderTransitionResultDto.rejected(orderId, null, "Order not found with ID: " + orderId));
+                continue;
+            }
+            try {
+                PaymentStatus paymentStatus = confirmedPaymentStatus(paymentStatuses.get(orderId));
+                changes.add(new OrderStatusChange(orderId, order.getStatus(),
+                        getNextOrderStatus(order.getStatus(), paymentStatus)));
+            } catch (IllegalStateException e) {
+                results.put(orderId, OrderTransitionResultDto.rejected(orderId, order.getStatus(), e.getMessage()));
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            // Rows are locked in id order, so that concurrent batches cannot deadlock
+            changes.sort(Comparator.comparing(OrderStatusChange::orderId));
+            int[] updateCounts = orderRepository.updateStatuses(changes);
+            List<Long> moved = new ArrayList<>();
+            for (int i = 0; i < changes.size(); i++) {
+                OrderStatusChange change = changes.get(i);
+                if (updateCounts[i] == 0) {
+                    results.put(change.orderId(), OrderTransitionResultDto.rejected(change.orderId(), change.expected(),
+                            "Order was concurrently modified, no longer " + change.expected()));
+                    continue;
+                }
+                // Applied once the transaction commits, for the rows actually changed only
+                orderStatistics.orderMoved(change.expected(), change.next());
+                moved.add(change.orderId());
+                results.put(change.orderId(), OrderTransitionResultDto.moved(change.orderId(), change.next()));
+            }
+            orderVersions.ordersChanged(moved);
+        }
+        return ids.stream().map(results::get).toList();
+    }
+
+    /**
+     * A stale status may be outdated, so it cannot be used to allow a transition.
+     */
+    private static PaymentStatus confirmedPaymentStatus(PaymentStatusSnapshot paymentStatus) {
+        return paymentStatus.stale() ? PaymentStatus.UNKNOWN : paymentStatus.status();
+    }
+
+    private OrderStatus getNextOrderStatus(OrderStatus currentStatus, PaymentStatus paymentStatus) {
         // Allow CREATED → PENDING transition regardless of payment status
         if (currentStatus == OrderStatus.CREATED) {
             return OrderStatus.PENDING;
@@ -85,26 +280,89 @@ public class OrderService {
             throw new IllegalStateException("Cannot delete order that is not FINISHED or CANCELLED");
         }
         orderRepository.deleteById(orderId);
+        orderStatistics.orderDeleted(existingOrder.get());
+        customerNameIndex.orderDeleted(orderId, existingOrder.get().getCustomerName());
+        orderVersions.orderChanged(orderId);
+        paymentServiceClient.evictPaymentStatus(orderId);
     }    // --- Mapping helpers ---
     private OrderDto toDto(Order order) {
-        PaymentStatus paymentStatus = getPaymentStatus(order.getId());
+        return toDto(order, getPaymentStatus(order.getId()));
+    }
+
+    private OrderDto toDto(Order order, OrderLookupContext lookups) {
+        return toDto(order, lookups.paymentStatus(order.getId()));
+    }
+
+    private OrderDto toDto(Order order, PaymentStatusSnapshot paymentStatus) {
+        if (paymentStatus == null) {
+            paymentStatus = PaymentStatusSnapshot.none();
+        }
         return new OrderDto(
                 order.getId(),
                 order.getCustomerName(),
                 order.getOrderDate(),
                 order.getStatus(),
                 order.getNumberOfItems(),
-                order.getTotalAmount(),
-                paymentStatus
+                Money.toAmount(order.getTotalAmountCents()),
+                paymentStatus.status(),
+                paymentStatus.stale()
         );
     }
 
-    private PaymentStatus getPaymentStatus(Long orderId) {
-        PaymentStatus paymentStatus = paymentServiceClient.getPaymentStatusByOrderId(orderId);
+    private OrderDto toDto(OrderSummary order, PaymentStatusSnapshot paymentStatus) {
         if (paymentStatus == null) {
-            paymentStatus = PaymentStatus.UNKNOWN; // Default to UNKNOWN if no payment status is found
+            paymentStatus = PaymentStatusSnapshot.none();
+        }
+        return new OrderDto(
+                order.id(),
+                order.customerName(),
+                order.orderDate(),
+                order.status(),
+                order.numberOfItems(),
+                Money.toAmount(order.totalAmountCents()),
+                paymentStatus.status(),
+                paymentStatus.stale()
+        );
+    }
+
+    private static OrderSummary toSummary(ArchivedOrder order) {
+        return new OrderSummary(order.getId(), order.getCustomerName(), order.getOrderDate(), order.getStatus(),
+                order.getNumberOfItems(), order.getTotalAmountCents());
+    }
+
+    private OrderLookupContext newLookupContext() {
+        return new OrderLookupContext(orderRepository, this::getPaymentStatus, this::getPaymentStatuses);
+    }
+
+    /**
+     * Payment statuses are read from the local projection fed by payment-app notifications; only orders
+     * missing from it are looked up remotely.
+     */
+    private Map<Long, PaymentStatusSnapshot> getPaymentStatuses(List<Long> orderIds) {
+        Map<Long, PaymentStatusSnapshot> paymentStatuses = new HashMap<>(paymentStatusProjectionService.findAll(orderIds));
+        List<Long> missing = orderIds.stream().filter(orderId -> !paymentStatuses.containsKey(orderId)).toList();
+        if (missing.isEmpty()) {
+            return paymentStatuses;
+        }
+        if (paymentLookupMode == PaymentLookupMode.PARALLEL) {
+            List<PaymentStatusSnapshot> statuses = paymentServiceClient.getPaymentStatusesInParallel(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                paymentStatuses.put(missing.get(i), statuses.get(i));
+            }
+        } else {
+            paymentStatuses.putAll(paymentServiceClient.getPaymentStatusesByOrderIds(missing));
         }
-        return paymentStatus;
+        return paymentStatuses;
+    }
+
+    private PaymentStatusSnapshot getPaymentStatus(Long orderId) {
+        return paymentStatusProjectionService.find(orderId).orElseGet(() -> {
+            PaymentStatusSnapshot paymentStatus = paymentServiceClient.getPaymentStatusByOrderId(orderId);
+            if (paymentStatus == null) {
+                paymentStatus = PaymentStatusSnapshot.none(); // Default to UNKNOWN if no payment status is found
+            }
+            return paymentStatus;
+        });
     }
 
     private Order toNewEntity(OrderDto dto) {
@@ -117,7 +375,7 @@ public class OrderService {
         order.setId(dto.getOrderId());
         order.setCustomerName(dto.getCustomerName());
         order.setOrderDate(dto.getOrderDate());
-        order.setTotalAmount(dto.getTotalAmount());
+        order.setTotalAmountCents(Money.toCents(dto.getTotalAmount()));
         order.setNumberOfItems(dto.getNumberOfItems());
         return order;
     }
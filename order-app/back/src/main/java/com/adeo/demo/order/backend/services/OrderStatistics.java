@@ -0,0 +1,113 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.persistence.ArchivedOrderRepository;
+import com.adeo.demo.order.backend.persistence.Order;
+import com.adeo.demo.order.backend.persistence.Money;
+import com.adeo.demo.order.backend.persistence.OrderDailyRevenue;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderStatusCount;
+import com.adeo.demo.order.backend.web.dto.OrderStatsDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order counts by status and revenue by day, kept in memory so that reading them does not scan the orders.
+ * <p>
+ * The counters are loaded from the database at startup, once schema.sql and data.sql have run, then every write
+ * on orders reports its delta here. Deltas are applied once the transaction commits, so rolled back writes are
+ * never counted. Each counter is a {@link LongAdder}, so concurrent writers do not contend on a single value.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class OrderStatistics {
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final Map<OrderStatus, LongAdder> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    // Revenue is counted in cents to keep the sums exact
+    private final Map<LocalDate, LongAdder> revenueCentsByDay = new ConcurrentHashMap<>();
+
+    public OrderStatistics(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Loads the counters from both the orders table and the archive: archiving an order does not change them.
+     */
+    @PostConstruct
+    void rebuild() {
+        add(orderRepository.countByStatus(), orderRepository.sumRevenueByDay());
+        add(archivedOrderRepository.countByStatus(), archivedOrderRepository.sumRevenueByDay());
+    }
+
+    private void add(List<OrderStatusCount> counts, List<OrderDailyRevenue> revenues) {
+        for (OrderStatusCount count : counts) {
+            ordersByStatus.get(count.status()).add(count.count());
+        }
+        for (OrderDailyRevenue revenue : revenues) {
+            revenueCents(revenue.orderDate()).add(revenue.revenueCents());
+        }
+    }
+
+    public void orderCreated(Order order) {
+        OrderStatus status = order.getStatus();
+        LocalDate orderDate = order.getOrderDate();
+        long amountCents = order.getTotalAmountCents();
+        AfterCommit.run(() -> {
+            ordersByStatus.get(status).increment();
+            revenueCents(orderDate).add(amountCents);
+        });
+    }
+
+    public void orderMoved(OrderStatus from, OrderStatus to) {
+        AfterCommit.run(() -> {
+            ordersByStatus.get(from).decrement();
+            ordersByStatus.get(to).increment();
+        });
+    }
+
+    public void orderDeleted(Order order) {
+        OrderStatus status = order.getStatus();
+        LocalDate orderDate = order.getOrderDate();
+        long amountCents = order.getTotalAmountCents();
+        AfterCommit.run(() -> {
+            ordersByStatus.get(status).decrement();
+            revenueCents(orderDate).add(-amountCents);
+        });
+    }
+
+    public OrderStatsDto snapshot() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (Map.Entry<OrderStatus, LongAdder> entry : ordersByStatus.entrySet()) {
+            long count = entry.getValue().sum();
+            counts.put(entry.getKey(), count);
+            total += count;
+        }
+        Map<LocalDate, Double> revenueByDay = new TreeMap<>();
+        revenueCentsByDay.forEach((day, cents) -> {
+            long sum = cents.sum();
+            if (sum != 0) {
+                revenueByDay.put(day, Money.toAmount(sum));
+            }
+        });
+        return new OrderStatsDto(total, counts, revenueByDay);
+    }
+
+    private LongAdder revenueCents(LocalDate orderDate) {
+        return revenueCentsByDay.computeIfAbsent(orderDate, day -> new LongAdder());
+    }
+}
@@ -0,0 +1,52 @@
+package com.adeo.demo.order.backend.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory versions of the orders, used as ETags so that conditional reads can be answered without reading
+ * the orders nor their payment status.
+ * <p>
+ * Every change to the orders, or to a payment status pushed by payment-app, takes the next value of a single
+ * collection version, which also becomes the version of each order it touches. Orders never changed since
+ * startup have version 0. The versions are only advanced after commit, so a version is never seen before the
+ * data it stands for, and every ETag embeds the startup time so that tags issued before a restart never match.
+ */
+@Component
+public class OrderVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong collectionVersion = new AtomicLong();
+    private final Map<Long, Long> orderVersions = new ConcurrentHashMap<>();
+
+    public String orderETag(Long orderId) {
+        return "\"" + epoch + "-" + orderId + "-" + orderVersions.getOrDefault(orderId, 0L) + "\"";
+    }
+
+    public String collectionETag() {
+        return "\"" + epoch + "-" + collectionVersion.get() + "\"";
+    }
+
+    /**
+     * Records a change to the list of orders that does not change how any single order is served, such as
+     * creations (no ETag was ever issued for a new id) or archival (archived orders are served unchanged).
+     */
+    public void collectionChanged() {
+        AfterCommit.run(collectionVersion::incrementAndGet);
+    }
+
+    public void orderChanged(Long orderId) {
+        ordersChanged(List.of(orderId));
+    }
+
+    public void ordersChanged(Collection<Long> orderIds) {
+        AfterCommit.run(() -> {
+            long version = collectionVersion.incrementAndGet();
+            orderIds.forEach(orderId -> orderVersions.merge(orderId, version, Math::max));
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.adeo.demo.order.backend.services;
+
+/**
+ * How the payment statuses of a list of orders are resolved against payment-app.
+ */
+public enum PaymentLookupMode {
+    /** One bulk request per batch of orders. */
+    BULK,
+    /** One request per order, issued concurrently on virtual threads. */
+    PARALLEL
+}
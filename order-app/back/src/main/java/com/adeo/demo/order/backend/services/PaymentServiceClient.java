@@ -1,42 +1,258 @@
 package com.adeo.demo.order.backend.services;
 
+import com.adeo.demo.order.backend.web.dto.PaymentOrderStatusDto;
 import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Client for payment-app.
+ * <p>
+ * Every remote call goes through the {@value #RESILIENCE_INSTANCE} bulkhead and circuit breaker
+ * (configured under {@code resilience4j.*}). When a call is rejected or fails, the last known status is
+ * served marked as stale, or {@link PaymentStatus#UNKNOWN} if there is none, instead of waiting on payment-app.
+ * The same applies without calling payment-app once the {@link RequestDeadline} of the request is spent.
+ */
 @Service
 public class PaymentServiceClient {
 
+    static final String RESILIENCE_INSTANCE = "paymentService";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final RestTemplate restTemplate;
-    private final String paymentServiceBaseUrl;    public PaymentServiceClient(RestTemplate restTemplate,
-                                @Value("${payment.service.base-url:http://localhost:8082}") String paymentServiceBaseUrl) {
+    private final ObjectMapper objectMapper;
+    private final PaymentStatusCache paymentStatusCache;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final String paymentServiceBaseUrl;
+    private final int batchSize;
+    private final Semaphore parallelLookupPermits;
+    private final Duration parallelLookupDeadline;
+    private final ExecutorService parallelLookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PaymentServiceClient(RestTemplate restTemplate,
+                                ObjectMapper objectMapper,
+                                PaymentStatusCache paymentStatusCache,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                BulkheadRegistry bulkheadRegistry,
+                                MeterRegistry meterRegistry,
+                                @Value("${payment.service.base-url:http://localhost:8082}") String paymentServiceBaseUrl,
+                                @Value("${payment.service.batch-size:100}") int batchSize,
+                                @Value("${payment.service.parallel.max-concurrency:16}") int parallelMaxConcurrency,
+                                @Value("${payment.service.parallel.deadline:2s}") Duration parallelLookupDeadline) {
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.paymentStatusCache = paymentStatusCache;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE);
+        this.bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_INSTANCE);
         this.paymentServiceBaseUrl = paymentServiceBaseUrl;
+        this.batchSize = batchSize;
+        this.parallelLookupPermits = new Semaphore(parallelMaxConcurrency);
+        this.parallelLookupDeadline = parallelLookupDeadline;
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> meterRegistry
+                .counter("payment.service.circuitbreaker.transitions",
+                        "name", RESILIENCE_INSTANCE,
+                        "from", event.getStateTransition().getFromState().name(),
+                        "to", event.getStateTransition().getToState().name())
+                .increment());
     }
 
-    public PaymentStatus getPaymentStatusByOrderId(Long orderId) {
-        try {
-            String url = paymentServiceBaseUrl + "/payments/order/" + orderId;
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> payments = restTemplate.getForObject(url, List.class);
-            
-            if (payments != null && !payments.isEmpty()) {
-                // Get the status from the first payment (assuming one payment per order)
-                String status = (String) payments.get(0).get("status");
-                return PaymentStatus.valueOf(status);
+    @PreDestroy
+    void shutdown() {
+        parallelLookupExecutor.shutdownNow();
+    }
+
+    public PaymentStatusSnapshot getPaymentStatusByOrderId(Long orderId) {
+        PaymentStatus cached = paymentStatusCache.get(orderId);
+        if (cached != null) {
+            return PaymentStatusSnapshot.fresh(cached);
+        }
+        return loadPaymentStatus(orderId);
+    }
+
+    /**
+     * Resolves the payment status of many orders at once, issuing one request per batch of
+     * {@code payment.service.batch-size} order ids instead of one request per order.
+     * Orders already present in the cache are not requested again.
+     */
+    public Map<Long, PaymentStatusSnapshot> getPaymentStatusesByOrderIds(Collection<Long> orderIds) {
+        Map<Long, PaymentStatusSnapshot> statuses = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            PaymentStatus cached = paymentStatusCache.get(orderId);
+            if (cached != null) {
+                statuses.put(orderId, PaymentStatusSnapshot.fresh(cached));
+            } else {
+                misses.add(orderId);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += batchSize) {
+            List<Long> batch = misses.subList(from, Math.min(from + batchSize, misses.size()));
+            if (RequestDeadline.isExpired()) {
+                batch.forEach(orderId -> statuses.put(orderId, fallbackPaymentStatus(orderId)));
+                continue;
             }
-        } catch (HttpClientErrorException.NotFound e) {
-            // No payment found for this order, return PENDING as default
-            return PaymentStatus.PENDING;
+            try {
+                Map<Long, PaymentStatus> fetched = callPaymentService(() -> fetchPaymentStatuses(batch));
+                fetched.forEach((orderId, status) -> {
+                    paymentStatusCache.put(orderId, status);
+                    statuses.put(orderId, PaymentStatusSnapshot.fresh(status));
+                });
+            } catch (Exception e) {
+                batch.forEach(orderId -> statuses.put(orderId, fallbackPaymentStatus(orderId)));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Resolves the payment status of each order with its own request, running the requests concurrently on
+     * virtual threads. At most {@code payment.service.parallel.max-concurrency} requests are in flight at once,
+     * and the whole lookup is bounded by {@code payment.service.parallel.deadline}, or by the {@link RequestDeadline}
+     * if it ends sooner: orders not resolved by then
+     * get {@link PaymentStatus#UNKNOWN}.
+     *
+     * @return the statuses, in the same order as {@code orderIds}
+     */
+    public List<PaymentStatusSnapshot> getPaymentStatusesInParallel(List<Long> orderIds) {
+        Duration budget = parallelLookupDeadline;
+        Duration requestRemaining = RequestDeadline.remaining();
+        if (requestRemaining != null && requestRemaining.compareTo(budget) < 0) {
+            budget = requestRemaining;
+        }
+        long deadline = System.nanoTime() + budget.toNanos();
+        List<Future<PaymentStatusSnapshot>> lookups = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            PaymentStatus cached = paymentStatusCache.get(orderId);
+            lookups.add(cached != null
+                    ? CompletableFuture.completedFuture(PaymentStatusSnapshot.fresh(cached))
+                    : parallelLookupExecutor.submit(RequestDeadline.propagate(() -> loadPaymentStatusWithPermit(orderId))));
+        }
+        List<PaymentStatusSnapshot> statuses = new ArrayList<>(lookups.size());
+        for (Future<PaymentStatusSnapshot> lookup : lookups) {
+            statuses.add(awaitPaymentStatus(lookup, deadline));
+        }
+        return statuses;
+    }
+
+    /**
+     * Drops the cached payment status of an order, so that the next lookup reaches payment-app.
+     */
+    public void evictPaymentStatus(Long orderId) {
+        paymentStatusCache.invalidate(orderId);
+    }
+
+    private PaymentStatusSnapshot loadPaymentStatusWithPermit(Long orderId) throws InterruptedException {
+        parallelLookupPermits.acquire();
+        try {
+            return loadPaymentStatus(orderId);
+        } finally {
+            parallelLookupPermits.release();
+        }
+    }
+
+    private PaymentStatusSnapshot awaitPaymentStatus(Future<PaymentStatusSnapshot> lookup, long deadline) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            lookup.cancel(true);
+            return PaymentStatusSnapshot.unknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lookup.cancel(true);
+            return PaymentStatusSnapshot.unknown();
+        }
+    }
+
+    private PaymentStatusSnapshot loadPaymentStatus(Long orderId) {
+        if (RequestDeadline.isExpired()) {
+            return fallbackPaymentStatus(orderId);
+        }
+        try {
+            PaymentStatus status = callPaymentService(() -> fetchPaymentStatus(orderId));
+            paymentStatusCache.put(orderId, status);
+            return PaymentStatusSnapshot.fresh(status);
         } catch (Exception e) {
-            // In case of any error, return PENDING as fallback
-            return PaymentStatus.PENDING;
+            return fallbackPaymentStatus(orderId);
+        }
+    }
+
+    /**
+     * Streams the status of every payment, ordered by order id then payment id, to the reader as it is received.
+     * This long-running batch read bypasses the bulkhead and circuit breaker, which guard request-path lookups.
+     *
+     * @return what the reader returns
+     */
+    public <T> T streamPaymentStatuses(Function<Iterator<PaymentOrderStatusDto>, T> reader) {
+        String url = paymentServiceBaseUrl + "/payments/order-status/stream";
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(NDJSON)),
+                response -> {
+                    try (MappingIterator<PaymentOrderStatusDto> payments = objectMapper
+                            .readerFor(PaymentOrderStatusDto.class)
+                            .readValues(response.getBody())) {
+                        return reader.apply(payments);
+                    }
+                });
+    }
+
+    private <T> T callPaymentService(Supplier<T> call) {
+        // The bulkhead wraps the breaker so that calls rejected for lack of capacity are not counted as failures
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+    }
+
+    private PaymentStatusSnapshot fallbackPaymentStatus(Long orderId) {
+        PaymentStatus lastKnown = paymentStatusCache.getStale(orderId);
+        return lastKnown != null ? PaymentStatusSnapshot.stale(lastKnown) : PaymentStatusSnapshot.unknown();
+    }
+
+    private PaymentStatus fetchPaymentStatus(Long orderId) {
+        // Same endpoint as bulk lookups, so that an order with several payments gets the status of its latest one
+        return fetchPaymentStatuses(List.of(orderId)).get(orderId);
+    }
+
+    private Map<Long, PaymentStatus> fetchPaymentStatuses(List<Long> orderIds) {
+        Map<Long, PaymentStatus> statuses = new HashMap<>();
+        String url = paymentServiceBaseUrl + "/payments/order-status?orderIds="
+                + orderIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Map<Long, String> payments = restTemplate.exchange(url, HttpMethod.GET, null,
+                new ParameterizedTypeReference<Map<Long, String>>() {}).getBody();
+        if (payments != null) {
+            payments.forEach((orderId, status) -> statuses.put(orderId, PaymentStatus.valueOf(status)));
         }
-        
-        return PaymentStatus.PENDING;
+        // Orders without any payment default to PENDING, as for single lookups
+        orderIds.forEach(orderId -> statuses.putIfAbsent(orderId, PaymentStatus.PENDING));
+        return statuses;
     }
 }
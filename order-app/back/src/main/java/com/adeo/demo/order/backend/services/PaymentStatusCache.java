@@ -0,0 +1,125 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded, expiring cache of payment statuses keyed by order id.
+ * <p>
+ * Each entry carries its own expiry: settled statuses (COMPLETED, FAILED) are kept for
+ * {@code payment.service.cache.ttl}, while statuses that are still expected to move are kept for the
+ * shorter {@code payment.service.cache.pending-ttl}. When full, the least recently used entry is evicted.
+ * <p>
+ * Expired entries are not served by {@link #get(Long)} but are kept until replaced or evicted, so that the
+ * last known status can still be served as a stale fallback when payment-app is unavailable. Each expiry is
+ * counted once, by the first read that finds the entry expired.
+ */
+@Component
+public class PaymentStatusCache {
+
+    private final int maxSize;
+    private final long settledTtlNanos;
+    private final long pendingTtlNanos;
+    private final Map<Long, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public PaymentStatusCache(@Value("${payment.service.cache.max-size:10000}") int maxSize,
+                              @Value("${payment.service.cache.ttl:30s}") Duration settledTtl,
+                              @Value("${payment.service.cache.pending-ttl:5s}") Duration pendingTtl,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.settledTtlNanos = settledTtl.toNanos();
+        this.pendingTtlNanos = pendingTtl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        FunctionCounter.builder("payment.status.cache.gets", hits, LongAdder::doubleValue)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("payment.status.cache.gets", misses, LongAdder::doubleValue)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("payment.status.cache.evictions", sizeEvictions, LongAdder::doubleValue)
+                .tag("cause", "size").register(meterRegistry);
+        FunctionCounter.builder("payment.status.cache.expirations", expirations, LongAdder::doubleValue)
+                .register(meterRegistry);
+        Gauge.builder("payment.status.cache.size", this, PaymentStatusCache::size).register(meterRegistry);
+    }
+
+    /**
+     * @return the cached status of the order, or null if absent or expired
+     */
+    public PaymentStatus get(Long orderId) {
+        synchronized (entries) {
+            Entry entry = entries.get(orderId);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                if (!entry.expirationCounted()) {
+                    expirations.increment();
+                    entries.put(orderId, entry.withExpirationCounted());
+                }
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.status();
+        }
+    }
+
+    /**
+     * @return the last known status of the order, even if expired, or null if none
+     */
+    public PaymentStatus getStale(Long orderId) {
+        synchronized (entries) {
+            Entry entry = entries.get(orderId);
+            return entry != null ? entry.status() : null;
+        }
+    }
+
+    public void put(Long orderId, PaymentStatus status) {
+        long ttl = status == PaymentStatus.COMPLETED || status == PaymentStatus.FAILED ? settledTtlNanos : pendingTtlNanos;
+        synchronized (entries) {
+            entries.put(orderId, new Entry(status, System.nanoTime() + ttl, false));
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    public void invalidate(Long orderId) {
+        synchronized (entries) {
+            entries.remove(orderId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry(PaymentStatus status, long expiresAtNanos, boolean expirationCounted) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        Entry withExpirationCounted() {
+            return new Entry(status, expiresAtNanos, true);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.persistence.OrderPaymentStatus;
+import com.adeo.demo.order.backend.persistence.OrderPaymentStatusRepository;
+import com.adeo.demo.order.backend.web.dto.PaymentStatusNotificationDto;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the local {@code order_payment_status} projection from the notifications pushed by payment-app,
+ * and serves payment statuses from it.
+ */
+@Service
+public class PaymentStatusProjectionService {
+
+    private final OrderPaymentStatusRepository orderPaymentStatusRepository;
+    private final PaymentStatusCache paymentStatusCache;
+    private final OrderVersions orderVersions;
+
+    @Autowired
+    public PaymentStatusProjectionService(OrderPaymentStatusRepository orderPaymentStatusRepository,
+                                          PaymentStatusCache paymentStatusCache, OrderVersions orderVersions) {
+        this.orderPaymentStatusRepository = orderPaymentStatusRepository;
+        this.paymentStatusCache = paymentStatusCache;
+        this.orderVersions = orderVersions;
+    }
+
+    /**
+     * Records a payment status change. As for {@code /payments/order-status}, the status of an order is the one of
+     * its latest payment, the one with the highest id: changes of older payments are ignored. Changes of the same
+     * payment older than the one already applied are ignored too, so redelivered or reordered notifications do
+     * not roll the status back. A notification without status removes the payment.
+     *
+     * @return true if the projection was updated
+     */
+    @Transactional
+    public boolean apply(PaymentStatusNotificationDto notification) {
+        Optional<OrderPaymentStatus> existing = orderPaymentStatusRepository.findById(notification.getOrderId());
+        if (existing.isPresent() && isOutdated(existing.get(), notification)) {
+            return false;
+        }
+        if (notification.getStatus() == null) {
+            return remove(existing, notification);
+        }
+        OrderPaymentStatus paymentStatus = existing.orElseGet(OrderPaymentStatus::new);
+        paymentStatus.setOrderId(notification.getOrderId());
+        paymentStatus.setPaymentId(notification.getPaymentId());
+        paymentStatus.setStatus(notification.getStatus());
+        paymentStatus.setChangedAt(notification.getChangedAt());
+        orderPaymentStatusRepository.save(paymentStatus);
+        paymentStatusCache.invalidate(notification.getOrderId());
+        orderVersions.orderChanged(notification.getOrderId());
+        return true;
+    }
+
+    /**
+     * The payment was deleted: when it is the one the order's status comes from, the row is dropped so that the
+     * status is looked up again from payment-app, which then answers with the order's remaining latest payment.
+     */
+    private boolean remove(Optional<OrderPaymentStatus> existing, PaymentStatusNotificationDto notification) {
+        if (existing.isEmpty() || !existing.get().getPaymentId().equals(notification.getPaymentId())) {
+            return false;
+        }
+        orderPaymentStatusRepository.delete(existing.get());
+        paymentStatusCache.invalidate(notification.getOrderId());
+        orderVersions.orderChanged(notification.getOrderId());
+        return true;
+    }
+
+    private static boolean isOutdated(OrderPaymentStatus current, PaymentStatusNotificationDto notification) {
+        int byPayment = notification.getPaymentId().compareTo(current.getPaymentId());
+        return byPayment < 0 || byPayment == 0 && current.getChangedAt().isAfter(notification.getChangedAt());
+    }
+
+    public Optional<PaymentStatusSnapshot> find(Long orderId) {
+        return orderPaymentStatusRepository.findById(orderId)
+                .map(paymentStatus -> PaymentStatusSnapshot.fresh(paymentStatus.getStatus()));
+    }
+
+    public Map<Long, PaymentStatusSnapshot> findAll(Collection<Long> orderIds) {
+        return orderPaymentStatusRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(OrderPaymentStatus::getOrderId,
+                        paymentStatus -> PaymentStatusSnapshot.fresh(paymentStatus.getStatus())));
+    }
+}
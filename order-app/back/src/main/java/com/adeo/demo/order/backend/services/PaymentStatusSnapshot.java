@@ -0,0 +1,35 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+
+/**
+ * A payment status as known by order-app.
+ *
+ * @param status the payment status
+ * @param stale  true when payment-app could not be reached: the status is the last one known, or UNKNOWN if there
+ *               is none. Such a status changes without any order version change, so it must not be cached
+ */
+public record PaymentStatusSnapshot(PaymentStatus status, boolean stale) {
+
+    public static PaymentStatusSnapshot fresh(PaymentStatus status) {
+        return new PaymentStatusSnapshot(status, false);
+    }
+
+    public static PaymentStatusSnapshot stale(PaymentStatus status) {
+        return new PaymentStatusSnapshot(status, true);
+    }
+
+    /**
+     * Status of an order whose payment-app lookup failed, with no last known status to fall back on.
+     */
+    public static PaymentStatusSnapshot unknown() {
+        return new PaymentStatusSnapshot(PaymentStatus.UNKNOWN, true);
+    }
+
+    /**
+     * Status of an order payment-app reported no payment status for.
+     */
+    public static PaymentStatusSnapshot none() {
+        return new PaymentStatusSnapshot(PaymentStatus.UNKNOWN, false);
+    }
+}
@@ -0,0 +1,221 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.persistence.ArchivedOrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.persistence.OrderSummary;
+import com.adeo.demo.order.backend.web.dto.PaymentOrderStatusDto;
+import com.adeo.demo.order.backend.web.dto.ReconciliationIssueDto;
+import com.adeo.demo.order.backend.web.dto.ReconciliationReportDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import com.adeo.demo.order.backend.web.dto.enums.ReconciliationIssueType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Finds orders whose status does not match their payment: orders past PENDING without a COMPLETED payment, and
+ * payments of orders that do not exist.
+ * <p>
+ * Orders, archived or not, are streamed from the database by id and payment statuses are streamed from payment-app by order id,
+ * then both sorted streams are merge-joined: each side is read once and only the payments of the current order
+ * are held in memory, whatever the number of rows.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final PaymentServiceClient paymentServiceClient;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxReportedIssues;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReportDto lastReport;
+
+    public ReconciliationService(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+                                 PaymentServiceClient paymentServiceClient,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${reconciliation.max-reported-issues:1000}") int maxReportedIssues) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.paymentServiceClient = paymentServiceClient;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxReportedIssues = maxReportedIssues;
+    }
+
+    /**
+     * @return the report of the last completed run, or null if none completed yet
+     */
+    public ReconciliationReportDto getLastReport() {
+        return lastReport;
+    }
+
+    @Scheduled(cron = "${reconciliation.cron:-}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Runs a reconciliation, unless one is already running.
+     *
+     * @return false if a run was already in progress
+     */
+    public boolean run() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            Run run = new Run();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<OrderSummary> orders = orderRepository.streamAllOrderById();
+                         Stream<OrderSummary> archivedOrders = archivedOrderRepository.streamAllOrderById()) {
+                        Iterator<OrderSummary> allOrders = mergeById(orders.iterator(), archivedOrders.iterator());
+                        paymentServiceClient.streamPaymentStatuses(payments -> {
+                            run.mergeJoin(allOrders, payments);
+                            return null;
+                        });
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Reconciliation failed", e);
+                run.error = e.getMessage();
+            }
+            lastReport = run.report();
+            logger.info("Reconciliation scanned {} orders and {} payments, found {} issues",
+                    run.ordersScanned, run.paymentsScanned, run.issueCount);
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Merges two iterators of orders sorted by id into one, still sorted by id.
+     */
+    private static Iterator<OrderSummary> mergeById(Iterator<OrderSummary> left, Iterator<OrderSummary> right) {
+        return new Iterator<>() {
+            private OrderSummary nextLeft = left.hasNext() ? left.next() : null;
+            private OrderSummary nextRight = right.hasNext() ? right.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public OrderSummary next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                OrderSummary next;
+                if (nextRight == null || (nextLeft != null && nextLeft.id() < nextRight.id())) {
+                    next = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    next = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                return next;
+            }
+        };
+    }
+
+    private class Run {
+
+        private final Instant startedAt = Instant.now();
+        private final List<ReconciliationIssueDto> issues = new ArrayList<>();
+        private long ordersScanned;
+        private long paymentsScanned;
+        private long issueCount;
+        private String error;
+
+        void mergeJoin(Iterator<OrderSummary> orders, Iterator<PaymentOrderStatusDto> payments) {
+            PaymentOrderStatusDto payment = next(payments);
+            while (orders.hasNext()) {
+                OrderSummary order = orders.next();
+                ordersScanned++;
+                // Payments sorted before the current order belong to no order
+                while (payment != null && payment.getOrderId() < order.id()) {
+                    payment = skipOrphanPayments(payment, payments);
+                }
+                // The payments of the order come ordered by id, so the last one is the latest
+                PaymentStatus latestPaymentStatus = null;
+                while (payment != null && payment.getOrderId().equals(order.id())) {
+                    latestPaymentStatus = payment.getStatus();
+                    payment = next(payments);
+                }
+                check(order, latestPaymentStatus);
+            }
+            while (payment != null) {
+                payment = skipOrphanPayments(payment, payments);
+            }
+        }
+
+        private void check(OrderSummary order, PaymentStatus paymentStatus) {
+            if (order.status() == OrderStatus.CREATED || order.status() == OrderStatus.PENDING
+                    || order.status() == OrderStatus.CANCELLED) {
+                return;
+            }
+            if (paymentStatus == null) {
+                report(new ReconciliationIssueDto(order.id(), ReconciliationIssueType.MISSING_PAYMENT,
+                        order.status(), null));
+            } else if (paymentStatus != PaymentStatus.COMPLETED) {
+                report(new ReconciliationIssueDto(order.id(), ReconciliationIssueType.PAYMENT_NOT_COMPLETED,
+                        order.status(), paymentStatus));
+            }
+        }
+
+        /**
+         * Reports the payments of an order that does not exist, once for the order.
+         *
+         * @return the first payment of the next order
+         */
+        private PaymentOrderStatusDto skipOrphanPayments(PaymentOrderStatusDto payment,
+                                                         Iterator<PaymentOrderStatusDto> payments) {
+            Long orderId = payment.getOrderId();
+            PaymentStatus latestPaymentStatus = null;
+            while (payment != null && payment.getOrderId().equals(orderId)) {
+                latestPaymentStatus = payment.getStatus();
+                payment = next(payments);
+            }
+            report(new ReconciliationIssueDto(orderId, ReconciliationIssueType.ORPHAN_PAYMENT, null,
+                    latestPaymentStatus));
+            return payment;
+        }
+
+        private PaymentOrderStatusDto next(Iterator<PaymentOrderStatusDto> payments) {
+            if (!payments.hasNext()) {
+                return null;
+            }
+            paymentsScanned++;
+            return payments.next();
+        }
+
+        private void report(ReconciliationIssueDto issue) {
+            issueCount++;
+            if (issues.size() < maxReportedIssues) {
+                issues.add(issue);
+            }
+        }
+
+        ReconciliationReportDto report() {
+            return new ReconciliationReportDto(startedAt, Instant.now(), ordersScanned, paymentsScanned,
+                    issueCount, issues, error);
+        }
+    }
+}
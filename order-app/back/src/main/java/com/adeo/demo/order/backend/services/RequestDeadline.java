@@ -0,0 +1,63 @@
+package com.adeo.demo.order.backend.services;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Time budget of the request being served by the current thread, set when an order request enters order-app.
+ * <p>
+ * Calls to payment-app are bounded by what is left of it, and forward it in the {@value #TIMEOUT_HEADER} header
+ * so that payment-app can abandon work nobody will wait for. Once it is spent, payment statuses are no longer
+ * looked up remotely and degrade as when payment-app is unavailable.
+ */
+public final class RequestDeadline {
+
+    /**
+     * Milliseconds left before the caller gives up on the request.
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE_NANOS.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * @return the time left, or null if the current thread has no deadline
+     */
+    public static Duration remaining() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? null : Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    public static boolean isExpired() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline != null && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Wraps a task so that it runs under the deadline of the current thread, for tasks handed to other threads.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            DEADLINE_NANOS.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                DEADLINE_NANOS.remove();
+            }
+        };
+    }
+}
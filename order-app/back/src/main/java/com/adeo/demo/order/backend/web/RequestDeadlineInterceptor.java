@@ -0,0 +1,44 @@
+package com.adeo.demo.order.backend.web;
+
+import com.adeo.demo.order.backend.services.RequestDeadline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Starts the {@link RequestDeadline} of each order request: {@code orders.request.deadline}, or less if the caller
+ * sent a shorter {@value RequestDeadline#TIMEOUT_HEADER}.
+ */
+public class RequestDeadlineInterceptor implements HandlerInterceptor {
+
+    private final Duration budget;
+
+    public RequestDeadlineInterceptor(Duration budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Duration requestBudget = budget;
+        String callerTimeout = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (callerTimeout != null) {
+            try {
+                Duration callerBudget = Duration.ofMillis(Math.max(0, Long.parseLong(callerTimeout.trim())));
+                if (callerBudget.compareTo(requestBudget) < 0) {
+                    requestBudget = callerBudget;
+                }
+            } catch (NumberFormatException e) {
+                // Ignore a malformed header and keep the default budget
+            }
+        }
+        RequestDeadline.start(requestBudget);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestDeadline.clear();
+    }
+}
@@ -1,11 +1,23 @@
 package com.adeo.demo.order.backend.web.controller;
 
 
+import com.adeo.demo.order.backend.persistence.OrderFilter;
+import com.adeo.demo.order.backend.services.IdempotencyStore;
 import com.adeo.demo.order.backend.services.OrderService;
+import com.adeo.demo.order.backend.services.OrderVersions;
 import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.OrderPageDto;
+import com.adeo.demo.order.backend.web.dto.OrderSearchHitDto;
+import com.adeo.demo.order.backend.web.dto.OrderStatsDto;
+import com.adeo.demo.order.backend.web.dto.OrderTransitionResultDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import java.time.LocalDate;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,48 +25,136 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = {OrderController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 @RequestMapping("/orders")
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     private final OrderService orderService;
+    private final OrderVersions orderVersions;
+    private final IdempotencyStore idempotencyStore;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderVersions orderVersions, IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.orderVersions = orderVersions;
+        this.idempotencyStore = idempotencyStore;
     }
 
+    /**
+     * Lists orders one page at a time. The id to pass as {@code after} for the next page is returned in the
+     * {@value #NEXT_CURSOR_HEADER} header, which is absent on the last page.
+     * <p>
+     * Responses carry an ETag that changes with any order; a request whose If-None-Match still matches it is
+     * answered 304 without reading the orders.
+     */
     @GetMapping
-    public ResponseEntity<List<OrderDto>> getOrders() {
-        logger.info("Request received to fetch all orders");
-        List<OrderDto> orders = orderService.getAllOrders();
-        logger.info("Returning {} orders", orders.size());
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDto>> getOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate orderDateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate orderDateTo,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.info("Request received to fetch orders after {} (status={}, customerName={}, orderDate={}..{}, limit={})",
+                after, status, customerName, orderDateFrom, orderDateTo, limit);
+        // Read the version before the data, so that a concurrent change can only make the tag older
+        String etag = orderVersions.collectionETag();
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        OrderFilter filter = new OrderFilter(status, customerName, orderDateFrom, orderDateTo);
+        OrderPageDto page = orderService.getOrders(filter, after, limit);
+        logger.info("Returning {} orders", page.getOrders().size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        // A stale or unavailable payment status will be refreshed without any version change, so it must not be cached
+        if (page.getOrders().stream().noneMatch(OrderDto::isPaymentStatusStale)) {
+            response.eTag(etag);
+        }
+        return response.body(page.getOrders());
     }
 
+    /**
+     * Finds orders by the start of any word of their customer name, ignoring case and accents.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<OrderSearchHitDto>> searchOrders(@RequestParam String customer,
+                                                                @RequestParam(required = false) Integer limit) {
+        logger.info("Request received to search orders by customer: {}", customer);
+        List<OrderSearchHitDto> hits = orderService.searchByCustomerName(customer, limit);
+        logger.info("Returning {} matching orders", hits.size());
+        return ResponseEntity.ok(hits);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsDto> getOrderStats() {
+        logger.info("Request received to fetch order statistics");
+        return ResponseEntity.ok(orderService.getStats());
+    }
+
+    /**
+     * Returns the order with an ETag; a request whose If-None-Match still matches it is answered 304 without
+     * reading the order nor its payment status.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDto> getOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderDto> getOrder(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Request received to fetch order with id: {}", id);
+        String etag = orderVersions.orderETag(id);
+        if (matches(ifNoneMatch, etag)) {
+            logger.info("Order with id {} not modified", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         OrderDto order = orderService.getOrder(id);
         if (order != null) {
             logger.info("Order found: {}", order);
-            return ResponseEntity.ok(order);
+            if (order.isPaymentStatusStale()) {
+                return ResponseEntity.ok(order);
+            }
+            return ResponseEntity.ok().eTag(etag).body(order);
         } else {
             logger.warn("Order with id {} not found", id);
             return ResponseEntity.notFound().build();
         }
-    }    @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@RequestBody OrderDto orderDto) {
+    }    /**
+     * Creates an order. When an {@value #IDEMPOTENCY_KEY_HEADER} header is sent, retries with the same key get
+     * the order created by the first request instead of creating another one.
+     */
+    @PostMapping
+    public ResponseEntity<OrderDto> createOrder(@RequestBody OrderDto orderDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         logger.info("Request received to create a new order: {}", orderDto);
-        OrderDto created = orderService.createOrder(orderDto);
+        OrderDto created = idempotencyKey == null
+                ? orderService.createOrder(orderDto)
+                : idempotencyStore.execute(idempotencyKey, orderDto, () -> orderService.createOrder(orderDto));
         logger.info("Order created successfully with id: {}", created.getOrderId());
         return ResponseEntity.ok(created);
     }
 
+    /**
+     * Creates many orders at once, e.g. to backfill orders taken on other channels.
+     * Returns the ids of the created orders, in request order.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<Long>> createOrders(@RequestBody List<OrderDto> orderDtos) {
+        logger.info("Request received to create {} orders", orderDtos.size());
+        List<Long> orderIds = orderService.createOrders(orderDtos);
+        logger.info("{} orders created successfully", orderIds.size());
+        return ResponseEntity.ok(orderIds);
+    }
+
     @PostMapping("/{id}/next")
     public ResponseEntity<OrderDto> nextOrderStep(@PathVariable Long id) {
         logger.info("Request received to move forward order: {}", id);
@@ -63,6 +163,15 @@ public class OrderController {
         return ResponseEntity.ok(updatedOrder);
     }
 
+    @PostMapping("/next")
+    public ResponseEntity<List<OrderTransitionResultDto>> nextOrderSteps(@RequestBody List<Long> orderIds) {
+        logger.info("Request received to move forward {} orders", orderIds.size());
+        List<OrderTransitionResultDto> results = orderService.nextOrderSteps(orderIds);
+        logger.info("Moved forward {} of {} orders",
+                results.stream().filter(OrderTransitionResultDto::isSuccess).count(), results.size());
+        return ResponseEntity.ok(results);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         logger.info("Request received to delete order with id: {}", id);
@@ -70,4 +179,20 @@ public class OrderController {
         logger.info("Order with id {} deleted successfully", id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Strong comparison of an If-None-Match header, which may list several tags, against the current ETag.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,35 @@
+package com.adeo.demo.order.backend.web.controller;
+
+import com.adeo.demo.order.backend.services.PaymentStatusProjectionService;
+import com.adeo.demo.order.backend.web.dto.PaymentStatusNotificationDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives payment status changes pushed by payment-app.
+ */
+@RestController
+@RequestMapping("/payment-notifications")
+public class PaymentNotificationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationController.class);
+    private final PaymentStatusProjectionService paymentStatusProjectionService;
+
+    public PaymentNotificationController(PaymentStatusProjectionService paymentStatusProjectionService) {
+        this.paymentStatusProjectionService = paymentStatusProjectionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> onPaymentStatusChanged(@RequestBody PaymentStatusNotificationDto notification) {
+        logger.info("Payment notification received: {}", notification);
+        if (!paymentStatusProjectionService.apply(notification)) {
+            logger.info("Ignoring outdated payment notification for order {}", notification.getOrderId());
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
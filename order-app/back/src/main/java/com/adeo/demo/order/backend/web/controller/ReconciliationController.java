@@ -0,0 +1,47 @@
+package com.adeo.demo.order.backend.web.controller;
+
+import com.adeo.demo.order.backend.services.ReconciliationService;
+import com.adeo.demo.order.backend.web.dto.ReconciliationReportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reports of the order/payment reconciliation, which runs on the reconciliation.cron schedule or on demand.
+ */
+@RestController
+@RequestMapping("/reconciliation")
+public class ReconciliationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationController.class);
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @GetMapping("/report")
+    public ResponseEntity<ReconciliationReportDto> getLastReport() {
+        logger.info("Request received to fetch the last reconciliation report");
+        ReconciliationReportDto report = reconciliationService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Starts a run in the background; its report is available from /reconciliation/report once done.
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<Void> startRun() {
+        logger.info("Request received to start a reconciliation");
+        Thread.ofVirtual().name("reconciliation").start(reconciliationService::run);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+}
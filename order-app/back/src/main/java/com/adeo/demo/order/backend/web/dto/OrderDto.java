@@ -16,4 +16,6 @@ public class OrderDto {
     private Integer numberOfItems;
     private double totalAmount;
     private PaymentStatus paymentStatus;
+    // True when payment-app was unavailable: paymentStatus is the last known value, or UNKNOWN if there is none
+    private boolean paymentStatusStale;
 }
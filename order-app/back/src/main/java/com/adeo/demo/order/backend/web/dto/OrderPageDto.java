@@ -0,0 +1,13 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderPageDto {
+    private List<OrderDto> orders;
+    // Id to pass as the "after" cursor to fetch the next page, null on the last page
+    private Long nextCursor;
+}
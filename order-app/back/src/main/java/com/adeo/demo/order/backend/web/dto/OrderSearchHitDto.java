@@ -0,0 +1,11 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderSearchHitDto {
+    private Long orderId;
+    private String customerName;
+}
@@ -0,0 +1,16 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import java.time.LocalDate;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderStatsDto {
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+    // Sum of the order amounts, by order date
+    private Map<LocalDate, Double> revenueByDay;
+}
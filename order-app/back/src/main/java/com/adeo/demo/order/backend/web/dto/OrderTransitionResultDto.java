@@ -0,0 +1,24 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderTransitionResultDto {
+    private Long orderId;
+    private boolean success;
+    // New status on success, unchanged status on rejection, null if the order does not exist
+    private OrderStatus status;
+    // Why the transition was rejected, null on success
+    private String reason;
+
+    public static OrderTransitionResultDto moved(Long orderId, OrderStatus status) {
+        return new OrderTransitionResultDto(orderId, true, status, null);
+    }
+
+    public static OrderTransitionResultDto rejected(Long orderId, OrderStatus status, String reason) {
+        return new OrderTransitionResultDto(orderId, false, status, reason);
+    }
+}
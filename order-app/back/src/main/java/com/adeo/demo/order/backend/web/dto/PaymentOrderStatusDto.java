@@ -0,0 +1,15 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentOrderStatusDto {
+    private Long paymentId;
+    private Long orderId;
+    private PaymentStatus status;
+}
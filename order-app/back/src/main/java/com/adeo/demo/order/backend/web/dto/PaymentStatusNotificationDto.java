@@ -0,0 +1,18 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusNotificationDto {
+    private Long paymentId;
+    private Long orderId;
+    // Null when the payment was deleted
+    private PaymentStatus status;
+    private Instant changedAt;
+}
@@ -0,0 +1,18 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import com.adeo.demo.order.backend.web.dto.enums.ReconciliationIssueType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReconciliationIssueDto {
+    private Long orderId;
+    private ReconciliationIssueType type;
+    // Null for an orphan payment
+    private OrderStatus orderStatus;
+    // Status of the latest payment of the order, null if it has none
+    private PaymentStatus paymentStatus;
+}
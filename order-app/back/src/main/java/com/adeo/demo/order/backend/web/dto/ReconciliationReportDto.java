@@ -0,0 +1,20 @@
+package com.adeo.demo.order.backend.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReconciliationReportDto {
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long ordersScanned;
+    private long paymentsScanned;
+    private long issueCount;
+    // At most reconciliation.max-reported-issues, in order id order; see issueCount for the total
+    private List<ReconciliationIssueDto> issues;
+    // Set when the run could not complete, in which case the counts are partial
+    private String error;
+}
@@ -0,0 +1,10 @@
+package com.adeo.demo.order.backend.web.dto.enums;
+
+public enum ReconciliationIssueType {
+    // The order went past PENDING but has no payment
+    MISSING_PAYMENT,
+    // The order went past PENDING but its latest payment is not COMPLETED
+    PAYMENT_NOT_COMPLETED,
+    // A payment references an order that does not exist
+    ORPHAN_PAYMENT
+}
@@ -3,17 +3,24 @@
 
 -- Drop tables if they exist (for development/testing purposes)
 DROP TABLE IF EXISTS orders;
+DROP SEQUENCE IF EXISTS orders_seq;
+
+-- Order ids are allocated by blocks of 50 so that inserts can be batched.
+-- INCREMENT BY must match the allocationSize of the Order entity.
+CREATE SEQUENCE orders_seq START WITH 100 INCREMENT BY 50;
 
 -- Create orders table
+-- Amounts are stored as integer cents, so that they and their sums are exact
 CREATE TABLE orders (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     customer_name VARCHAR(255) NOT NULL,
     order_date DATE NOT NULL,
-    total_amount DECIMAL(10,2) NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
     number_of_items INTEGER NOT NULL,
     status VARCHAR(50) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT chk_status CHECK (status IN ('CREATED', 'PENDING', 'SHIPPED', 'DELIVERED', 'CANCELLED', 'FINISHED')),
-    CONSTRAINT chk_total_amount CHECK (total_amount >= 0),
+    CONSTRAINT chk_total_amount CHECK (total_amount_cents >= 0),
     CONSTRAINT chk_number_of_items CHECK (number_of_items > 0)
 );
 
@@ -21,3 +28,26 @@ CREATE TABLE orders (
 CREATE INDEX idx_orders_status ON orders(status);
 CREATE INDEX idx_orders_customer_name ON orders(customer_name);
 CREATE INDEX idx_orders_order_date ON orders(order_date);
+
+-- Local copy of the latest payment status of each order, fed by payment-app notifications
+DROP TABLE IF EXISTS order_payment_status;
+
+CREATE TABLE order_payment_status (
+    order_id BIGINT PRIMARY KEY,
+    payment_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- FINISHED and CANCELLED orders moved out of the orders table by the archiver, with their original id
+DROP TABLE IF EXISTS orders_archive;
+
+CREATE TABLE orders_archive (
+    id BIGINT PRIMARY KEY,
+    customer_name VARCHAR(255) NOT NULL,
+    order_date DATE NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
+    number_of_items INTEGER NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,217 @@
+package com.adeo.demo.order.backend.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeo.demo.order.backend.performance.PaymentServiceStandIn.Latency;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.services.OrderService;
+import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Throughput and p99 latency of GET /orders and POST /orders/{id}/next, with payment-app replaced by a
+ * {@link PaymentServiceStandIn}. The payment status cache is disabled so that every request goes through
+ * {@code PaymentServiceClient}. Run with {@code ./gradlew performanceTest}; the p99 limits can be changed with
+ * -Dperformance.max-p99-ms and -Dperformance.degraded-margin-ms.
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.service.cache.ttl=0s",
+        "payment.service.cache.pending-ttl=0s",
+        "reconciliation.cron=-",
+        "orders.archive.cron=-",
+        "logging.level.com.adeo.demo.order.backend.web=WARN",
+        "logging.level.com.adeo.demo.order.backend.services=WARN"
+})
+class OrderEndpointsPerformanceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEndpointsPerformanceTest.class);
+    private static final long MAX_P99_MILLIS = Long.getLong("performance.max-p99-ms", 250);
+    private static final long DEGRADED_MARGIN_MILLIS = Long.getLong("performance.degraded-margin-ms", 500);
+    private static final int CLIENT_THREADS = 16;
+    private static final int ORDERS = 500;
+
+    private static final PaymentServiceStandIn paymentService = startPaymentService();
+    private static final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${orders.request.deadline}")
+    private Duration requestDeadline;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @DynamicPropertySource
+    static void paymentServiceProperties(DynamicPropertyRegistry registry) {
+        registry.add("payment.service.base-url", paymentService::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPaymentService() {
+        paymentService.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        paymentService.reset();
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(circuitBreaker -> circuitBreaker.reset());
+    }
+
+    @Test
+    void listOrders() {
+        paymentService.latency(Latency.logNormal(Duration.ofMillis(5), Duration.ofMillis(50)));
+        List<Long> orderIds = createOrders();
+
+        Result result = measure("GET /orders", 2_000, i -> get(page(orderIds, i)));
+
+        assertThat(result.failures()).isZero();
+        assertThat(result.p99Millis()).isLessThanOrEqualTo(MAX_P99_MILLIS);
+    }
+
+    @Test
+    void nextOrderStep() {
+        paymentService.latency(Latency.logNormal(Duration.ofMillis(5), Duration.ofMillis(50)));
+        List<Long> orderIds = createOrders();
+
+        // Each round moves every order one step, from CREATED to FINISHED
+        for (OrderStatus step : List.of(OrderStatus.PENDING, OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.FINISHED)) {
+            Result result = measure("POST /orders/{id}/next to " + step, orderIds.size(),
+                    i -> post("/orders/" + orderIds.get(i) + "/next"));
+
+            assertThat(result.failures()).isZero();
+            assertThat(result.p99Millis()).isLessThanOrEqualTo(MAX_P99_MILLIS);
+        }
+    }
+
+    @Test
+    void listOrdersWhilePaymentServiceStallsStaysWithinTheRequestDeadline() {
+        paymentService.latency(Latency.logNormal(Duration.ofMillis(5), Duration.ofMillis(50)))
+                .errorRate(0.1)
+                .stalls(0.05, Duration.ofSeconds(10));
+        List<Long> orderIds = createOrders();
+
+        Result result = measure("GET /orders, degraded payment-app", 400, i -> get(page(orderIds, i)));
+
+        assertThat(result.failures()).isZero();
+        assertThat(result.p99Millis()).isLessThanOrEqualTo(requestDeadline.toMillis() + DEGRADED_MARGIN_MILLIS);
+    }
+
+    private List<Long> createOrders() {
+        orderRepository.deleteAllInBatch();
+        return orderService.createOrders(IntStream.range(0, ORDERS)
+                .mapToObj(i -> new OrderDto(null, "Customer " + i, LocalDate.of(2025, 1, 1), null, 1, 10.0, null, false))
+                .toList());
+    }
+
+    /**
+     * @return one of the 50-order pages of the created orders, cycling through them
+     */
+    private static String page(List<Long> orderIds, int request) {
+        int pages = orderIds.size() / 50;
+        return "/orders?limit=50&after=" + (orderIds.get((request % pages) * 50) - 1);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    /**
+     * Sends the requests from {@value #CLIENT_THREADS} concurrent clients and records the latency of each.
+     */
+    private Result measure(String name, int count, IntFunction<HttpRequest> request) {
+        long[] latencies = new long[count];
+        List<Future<Boolean>> responses = new ArrayList<>(count);
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS)) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                responses.add(clients.submit(() -> {
+                    long sent = System.nanoTime();
+                    HttpResponse<Void> response = send(request.apply(index));
+                    latencies[index] = System.nanoTime() - sent;
+                    return response.statusCode() / 100 == 2;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long failures = responses.stream().filter(response -> !response.resultNow()).count();
+        Arrays.sort(latencies);
+        Result result = new Result(count, failures, elapsed, percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.99));
+        logger.info("{}: {} requests in {} ms, {} req/s, p50 {} ms, p99 {} ms, {} failed ({} payment-app requests so far)",
+                name, count, elapsed / 1_000_000, Math.round(count / (elapsed / 1e9)), result.p50Millis(),
+                result.p99Millis(), failures, paymentService.requestCount());
+        return result;
+    }
+
+    private static HttpResponse<Void> send(HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000;
+    }
+
+    private static PaymentServiceStandIn startPaymentService() {
+        try {
+            return PaymentServiceStandIn.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Result(int requests, long failures, long elapsedNanos, long p50Millis, long p99Millis) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.adeo.demo.order.backend.performance;
+
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-process stand-in for the payment-app endpoints used by order-app, {@code /payments/order/{orderId}} and
+ * {@code /payments/order-status?orderIds=...}, with configurable latency, error rate and stalls.
+ * <p>
+ * Every order has a single payment, in the configured status. Requests are served on virtual threads, so stalled
+ * requests do not hold back the others.
+ */
+class PaymentServiceStandIn implements AutoCloseable {
+
+    /**
+     * Distribution of the time taken to answer a request.
+     */
+    interface Latency {
+
+        Duration next(ThreadLocalRandom random);
+
+        static Latency none() {
+            return random -> Duration.ZERO;
+        }
+
+        static Latency fixed(Duration latency) {
+            return random -> latency;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            return random -> Duration.ofNanos(random.nextLong(min.toNanos(), max.toNanos() + 1));
+        }
+
+        /**
+         * Log-normal latency, the usual shape of service response times: most requests close to the median and
+         * a long tail, 1% of them above {@code p99}.
+         */
+        static Latency logNormal(Duration median, Duration p99) {
+            double mu = Math.log(median.toNanos());
+            double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+            return random -> Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+        }
+    }
+
+    private final HttpServer server;
+    private final AtomicLong requests = new AtomicLong();
+    private volatile Latency latency = Latency.none();
+    private volatile double errorRate;
+    private volatile double stallRate;
+    private volatile Duration stallDuration = Duration.ZERO;
+    private volatile PaymentStatus paymentStatus = PaymentStatus.COMPLETED;
+
+    private PaymentServiceStandIn(HttpServer server) {
+        this.server = server;
+    }
+
+    static PaymentServiceStandIn start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        PaymentServiceStandIn standIn = new PaymentServiceStandIn(server);
+        server.createContext("/payments/", standIn::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return standIn;
+    }
+
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    PaymentServiceStandIn latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * @param errorRate share of requests answered 500, between 0 and 1
+     */
+    PaymentServiceStandIn errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param stallRate share of requests that hang for {@code duration} before being answered, between 0 and 1
+     */
+    PaymentServiceStandIn stalls(double stallRate, Duration duration) {
+        this.stallRate = stallRate;
+        this.stallDuration = duration;
+        return this;
+    }
+
+    PaymentServiceStandIn paymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+        return this;
+    }
+
+    /**
+     * Restores a fast and healthy stand-in, answering COMPLETED.
+     */
+    PaymentServiceStandIn reset() {
+        return latency(Latency.none()).errorRate(0).stalls(0, Duration.ZERO).paymentStatus(PaymentStatus.COMPLETED);
+    }
+
+    long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Duration delay = latency.next(random);
+            if (random.nextDouble() < stallRate) {
+                delay = delay.plus(stallDuration);
+            }
+            sleep(delay);
+            if (random.nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String body;
+            if (path.startsWith("/payments/order/")) {
+                long orderId = Long.parseLong(path.substring("/payments/order/".length()));
+                body = "[{\"paymentId\":" + orderId + ",\"orderId\":" + orderId + ",\"status\":\"" + paymentStatus + "\"}]";
+            } else if (path.equals("/payments/order-status")) {
+                String orderIds = exchange.getRequestURI().getQuery().substring("orderIds=".length());
+                body = Arrays.stream(orderIds.split(","))
+                        .map(orderId -> "\"" + orderId + "\":\"" + paymentStatus + "\"")
+                        .collect(Collectors.joining(",", "{", "}"));
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static void sleep(Duration delay) {
+        if (delay.isZero() || delay.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.adeo.demo.order.backend.services;
+
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.LocalDate;
+
+/**
+ * Same columns as {@link com.adeo.demo.order.backend.persistence.Order} but with IDENTITY ids, which Hibernate
+ * cannot batch: the baseline of {@link OrderInsertBenchmarkTest}. Its table is created by Hibernate for tests only.
+ */
+@Entity
+@Table(name = "orders_identity")
+class IdentityOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String customerName;
+
+    private LocalDate orderDate;
+
+    private long totalAmountCents;
+
+    private Integer numberOfItems;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Version
+    private Long version;
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public LocalDate getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }
+
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
+
+    public Integer getNumberOfItems() { return numberOfItems; }
+    public void setNumberOfItems(Integer numberOfItems) { this.numberOfItems = numberOfItems; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
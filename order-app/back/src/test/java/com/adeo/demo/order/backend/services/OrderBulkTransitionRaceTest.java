@@ -0,0 +1,133 @@
+package com.adeo.demo.order.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import com.adeo.demo.order.backend.persistence.Order;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.OrderTransitionResultDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Bulk and single transitions race on the same orders. A bulk call must report an order moved concurrently as
+ * rejected rather than fail, and every transition reported as done, by either endpoint, must have been applied
+ * exactly once.
+ */
+@SpringBootTest(properties = "orders.transition.max-attempts=100")
+class OrderBulkTransitionRaceTest {
+
+    private static final List<OrderStatus> STEPS =
+            List.of(OrderStatus.PENDING, OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.FINISHED);
+    private static final int ORDERS = 20;
+    private static final int SINGLE_CALLS_PER_ORDER = 6;
+    private static final int BULK_CALLS = 6;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockitoBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void bulkTransitionsRacingSingleOnesAreNeitherLostNorDuplicated() throws InterruptedException {
+        when(paymentServiceClient.getPaymentStatusByOrderId(anyLong()))
+                .thenReturn(PaymentStatusSnapshot.fresh(PaymentStatus.COMPLETED));
+        when(paymentServiceClient.getPaymentStatusesByOrderIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> orderIds = invocation.getArgument(0);
+            return orderIds.stream().collect(Collectors.toMap(Function.identity(),
+                    orderId -> PaymentStatusSnapshot.fresh(PaymentStatus.COMPLETED)));
+        });
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(orderRepository.save(newOrder(i)).getId());
+        }
+
+        Map<Long, Queue<OrderStatus>> applied = new ConcurrentHashMap<>();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (int i = 0; i < BULK_CALLS; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        for (OrderTransitionResultDto result : orderService.nextOrderSteps(orderIds)) {
+                            if (result.isSuccess()) {
+                                applied(applied, result.getOrderId()).add(result.getStatus());
+                            }
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                });
+            }
+            for (Long orderId : orderIds) {
+                for (int i = 0; i < SINGLE_CALLS_PER_ORDER; i++) {
+                    executor.submit(() -> {
+                        start.await();
+                        try {
+                            OrderDto moved = orderService.nextOrderStep(orderId);
+                            applied(applied, orderId).add(moved.getStatus());
+                        } catch (IllegalStateException e) {
+                            // Expected once the order is FINISHED
+                        } catch (Throwable e) {
+                            unexpected.add(e);
+                        }
+                        return null;
+                    });
+                }
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(unexpected).isEmpty();
+        for (Long orderId : orderIds) {
+            // Enough single calls are made to finish every order, whatever the bulk calls did
+            assertThat(applied.get(orderId)).containsExactlyInAnyOrderElementsOf(STEPS);
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.FINISHED);
+            assertThat(order.getVersion()).isEqualTo((long) STEPS.size());
+        }
+    }
+
+    private static Queue<OrderStatus> applied(Map<Long, Queue<OrderStatus>> applied, Long orderId) {
+        return applied.computeIfAbsent(orderId, id -> new ConcurrentLinkedQueue<>());
+    }
+
+    private static Order newOrder(int i) {
+        Order order = new Order();
+        order.setCustomerName("Race " + i);
+        order.setOrderDate(LocalDate.of(2025, 1, 1));
+        order.setTotalAmountCents(1000);
+        order.setNumberOfItems(1);
+        order.setStatus(OrderStatus.CREATED);
+        return order;
+    }
+}
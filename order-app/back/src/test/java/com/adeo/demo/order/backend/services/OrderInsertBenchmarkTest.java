@@ -0,0 +1,119 @@
+package com.adeo.demo.order.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeo.demo.order.backend.persistence.Money;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Insert throughput of a nightly backfill. The baselines insert {@link IdentityOrder}s, mapped with IDENTITY ids
+ * as orders used to be, one transaction per order and all in one transaction; they are compared with
+ * {@link OrderService#createOrders(List)}, which batches inserts thanks to the pooled sequence.
+ * Run with {@code ./gradlew benchmark}; the number of orders can be changed with -Dbenchmark.orders.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class OrderInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderInsertBenchmarkTest.class);
+    private static final int ORDER_COUNT = Integer.getInteger("benchmark.orders", 100_000);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void deleteOrders() {
+        orderRepository.deleteAllInBatch();
+        transactionTemplate.executeWithoutResult(
+                status -> entityManager.createQuery("delete from IdentityOrder").executeUpdate());
+    }
+
+    @Test
+    void identityOneSavePerOrder() {
+        List<OrderDto> orders = newOrders();
+        long start = System.nanoTime();
+        for (OrderDto dto : orders) {
+            transactionTemplate.executeWithoutResult(status -> entityManager.persist(toIdentityOrder(dto)));
+        }
+        report("identity, one save per order", start);
+        assertThat(countIdentityOrders()).isEqualTo(ORDER_COUNT);
+    }
+
+    @Test
+    void identityOneTransaction() {
+        List<OrderDto> orders = newOrders();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < orders.size(); i++) {
+                entityManager.persist(toIdentityOrder(orders.get(i)));
+                if ((i + 1) % 50 == 0) {
+                    // Same flush and clear cadence as createOrders, only the id generation differs
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        report("identity, one transaction", start);
+        assertThat(countIdentityOrders()).isEqualTo(ORDER_COUNT);
+    }
+
+    @Test
+    void bulkCreate() {
+        List<OrderDto> orders = newOrders();
+        long start = System.nanoTime();
+        List<Long> orderIds = orderService.createOrders(orders);
+        report("bulk create", start);
+        assertThat(orderIds).hasSize(ORDER_COUNT).doesNotContainNull();
+        assertThat(orderRepository.count()).isEqualTo(ORDER_COUNT);
+    }
+
+    private static List<OrderDto> newOrders() {
+        return IntStream.range(0, ORDER_COUNT)
+                .mapToObj(i -> new OrderDto(null, "Customer " + i, LocalDate.of(2025, 1, 1).plusDays(i % 365),
+                        OrderStatus.CREATED, 1 + i % 10, 10.0 + i % 1000, null, false))
+                .toList();
+    }
+
+    private long countIdentityOrders() {
+        return entityManager.createQuery("select count(o) from IdentityOrder o", Long.class).getSingleResult();
+    }
+
+    private static IdentityOrder toIdentityOrder(OrderDto dto) {
+        IdentityOrder order = new IdentityOrder();
+        order.setCustomerName(dto.getCustomerName());
+        order.setOrderDate(dto.getOrderDate());
+        order.setTotalAmountCents(Money.toCents(dto.getTotalAmount()));
+        order.setNumberOfItems(dto.getNumberOfItems());
+        order.setStatus(OrderStatus.CREATED);
+        return order;
+    }
+
+    private static void report(String name, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        logger.info("{}: {} orders in {} s ({} orders/s)", name, ORDER_COUNT, String.format("%.2f", seconds),
+                Math.round(ORDER_COUNT / seconds));
+    }
+}
@@ -0,0 +1,68 @@
+package com.adeo.demo.order.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import com.adeo.demo.order.backend.persistence.Order;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.web.dto.OrderTransitionResultDto;
+import com.adeo.demo.order.backend.web.dto.PaymentStatusNotificationDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Transitions are gated on the payment status read from payment-app, not on the projection, which may still hold
+ * a status payment-app no longer has.
+ */
+@SpringBootTest
+class OrderPaymentGateTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentStatusProjectionService projection;
+
+    @MockitoBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void transitionsIgnoreAProjectionAheadOfPaymentApp() {
+        Long orderId = orderRepository.save(newPendingOrder()).getId();
+        projection.apply(new PaymentStatusNotificationDto(1L, orderId, PaymentStatus.COMPLETED, Instant.now()));
+        when(paymentServiceClient.getPaymentStatusByOrderId(anyLong()))
+                .thenReturn(PaymentStatusSnapshot.fresh(PaymentStatus.PENDING));
+        when(paymentServiceClient.getPaymentStatusesByOrderIds(anyCollection()))
+                .thenReturn(Map.of(orderId, PaymentStatusSnapshot.fresh(PaymentStatus.PENDING)));
+
+        assertThatThrownBy(() -> orderService.nextOrderStep(orderId)).isInstanceOf(IllegalStateException.class);
+        List<OrderTransitionResultDto> results = orderService.nextOrderSteps(List.of(orderId));
+
+        assertThat(results).singleElement().extracting(OrderTransitionResultDto::isSuccess).isEqualTo(false);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    private static Order newPendingOrder() {
+        Order order = new Order();
+        order.setCustomerName("Gate");
+        order.setOrderDate(LocalDate.of(2025, 1, 1));
+        order.setTotalAmountCents(1000);
+        order.setNumberOfItems(1);
+        order.setStatus(OrderStatus.PENDING);
+        return order;
+    }
+}
@@ -0,0 +1,101 @@
+package com.adeo.demo.order.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import com.adeo.demo.order.backend.persistence.Order;
+import com.adeo.demo.order.backend.persistence.OrderRepository;
+import com.adeo.demo.order.backend.web.dto.OrderDto;
+import com.adeo.demo.order.backend.web.dto.enums.OrderStatus;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Many threads move the same orders forward at once. Every transition that is reported as done must have been
+ * applied exactly once: no two calls may return the same step, and no step may be skipped.
+ */
+@SpringBootTest(properties = "orders.transition.max-attempts=100")
+class OrderTransitionStressTest {
+
+    private static final List<OrderStatus> STEPS =
+            List.of(OrderStatus.PENDING, OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.FINISHED);
+    private static final int ORDERS = 20;
+    private static final int CALLS_PER_ORDER = 8;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockitoBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void concurrentTransitionsAreNeitherLostNorSkipped() throws InterruptedException {
+        when(paymentServiceClient.getPaymentStatusByOrderId(anyLong()))
+                .thenReturn(PaymentStatusSnapshot.fresh(PaymentStatus.COMPLETED));
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(orderRepository.save(newOrder(i)).getId());
+        }
+
+        Map<Long, Queue<OrderStatus>> applied = new ConcurrentHashMap<>();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (Long orderId : orderIds) {
+                for (int i = 0; i < CALLS_PER_ORDER; i++) {
+                    executor.submit(() -> {
+                        start.await();
+                        try {
+                            OrderDto moved = orderService.nextOrderStep(orderId);
+                            applied.computeIfAbsent(orderId, id -> new ConcurrentLinkedQueue<>()).add(moved.getStatus());
+                        } catch (IllegalStateException e) {
+                            // Expected once the order is FINISHED
+                        } catch (Throwable e) {
+                            unexpected.add(e);
+                        }
+                        return null;
+                    });
+                }
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(unexpected).isEmpty();
+        for (Long orderId : orderIds) {
+            assertThat(applied.get(orderId)).containsExactlyInAnyOrderElementsOf(STEPS);
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.FINISHED);
+            assertThat(order.getVersion()).isEqualTo((long) STEPS.size());
+        }
+    }
+
+    private static Order newOrder(int i) {
+        Order order = new Order();
+        order.setCustomerName("Stress " + i);
+        order.setOrderDate(LocalDate.of(2025, 1, 1));
+        order.setTotalAmountCents(1000);
+        order.setNumberOfItems(1);
+        order.setStatus(OrderStatus.CREATED);
+        return order;
+    }
+}
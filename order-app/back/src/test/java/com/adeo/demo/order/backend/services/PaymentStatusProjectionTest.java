@@ -0,0 +1,65 @@
+package com.adeo.demo.order.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeo.demo.order.backend.web.dto.PaymentStatusNotificationDto;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The projection keeps the status of the latest payment of each order, whatever the order in which the
+ * notifications of its payments arrive, and drops it when that payment is deleted.
+ */
+@SpringBootTest
+class PaymentStatusProjectionTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    @Autowired
+    private PaymentStatusProjectionService projection;
+
+    @Test
+    void lateChangeOfAnOlderPaymentIsIgnored() {
+        Long orderId = 9001L;
+        assertThat(projection.apply(notification(11L, orderId, PaymentStatus.COMPLETED, NOW))).isTrue();
+
+        // Payment 10 was replaced by payment 11, its failure is notified late
+        assertThat(projection.apply(notification(10L, orderId, PaymentStatus.FAILED, NOW.plusSeconds(5)))).isFalse();
+
+        assertThat(projection.find(orderId)).get().extracting(PaymentStatusSnapshot::status)
+                .isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    @Test
+    void outdatedChangeOfTheSamePaymentIsIgnored() {
+        Long orderId = 9002L;
+        assertThat(projection.apply(notification(20L, orderId, PaymentStatus.COMPLETED, NOW.plusSeconds(5)))).isTrue();
+
+        assertThat(projection.apply(notification(20L, orderId, PaymentStatus.PENDING, NOW))).isFalse();
+        assertThat(projection.apply(notification(21L, orderId, PaymentStatus.PENDING, NOW))).isTrue();
+
+        assertThat(projection.find(orderId)).get().extracting(PaymentStatusSnapshot::status)
+                .isEqualTo(PaymentStatus.PENDING);
+    }
+
+    @Test
+    void deletedLatestPaymentIsRemoved() {
+        Long orderId = 9003L;
+        projection.apply(notification(30L, orderId, PaymentStatus.COMPLETED, NOW));
+
+        // An older payment of the order does not carry its status, its deletion changes nothing
+        assertThat(projection.apply(notification(29L, orderId, null, NOW.plusSeconds(5)))).isFalse();
+        assertThat(projection.find(orderId)).isPresent();
+
+        assertThat(projection.apply(notification(30L, orderId, null, NOW.plusSeconds(10)))).isTrue();
+        assertThat(projection.find(orderId)).isEmpty();
+    }
+
+    private static PaymentStatusNotificationDto notification(Long paymentId, Long orderId, PaymentStatus status,
+                                                             Instant changedAt) {
+        return new PaymentStatusNotificationDto(paymentId, orderId, status, changedAt);
+    }
+}
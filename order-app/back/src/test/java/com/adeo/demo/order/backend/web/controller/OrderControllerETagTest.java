@@ -0,0 +1,79 @@
+package com.adeo.demo.order.backend.web.controller;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.adeo.demo.order.backend.services.PaymentServiceClient;
+import com.adeo.demo.order.backend.services.PaymentStatusSnapshot;
+import com.adeo.demo.order.backend.web.dto.enums.PaymentStatus;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * A response built while payment-app was unavailable must not carry an ETag: otherwise clients polling with
+ * If-None-Match would keep getting 304 and the degraded payment status once payment-app is back.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderControllerETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void orderWithUnavailablePaymentStatusHasNoETag() throws Exception {
+        when(paymentServiceClient.getPaymentStatusByOrderId(anyLong()))
+                .thenReturn(PaymentStatusSnapshot.unknown())
+                .thenReturn(PaymentStatusSnapshot.fresh(PaymentStatus.COMPLETED));
+
+        mockMvc.perform(get("/orders/4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentStatus").value("UNKNOWN"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        // payment-app is back: the client has no tag to send, and gets the actual status with a tag
+        mockMvc.perform(get("/orders/4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentStatus").value("COMPLETED"))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void orderListWithUnavailablePaymentStatusHasNoETag() throws Exception {
+        when(paymentServiceClient.getPaymentStatusesByOrderIds(anyCollection()))
+                .thenAnswer(invocation -> statuses(invocation.getArgument(0), PaymentStatusSnapshot.unknown()))
+                .thenAnswer(invocation -> statuses(invocation.getArgument(0),
+                        PaymentStatusSnapshot.fresh(PaymentStatus.COMPLETED)));
+
+        mockMvc.perform(get("/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].paymentStatus").value("UNKNOWN"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].paymentStatus").value("COMPLETED"))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    private static Map<Long, PaymentStatusSnapshot> statuses(Collection<Long> orderIds, PaymentStatusSnapshot status) {
+        return orderIds.stream().collect(Collectors.toMap(Function.identity(), orderId -> status));
+    }
+}
@@ -0,0 +1,41 @@
+package com.adeo.demo.order.backend.web.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The customer name index is loaded at startup, after data.sql: the seeded customers must be found.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void seededCustomerIsFoundByAnyWordPrefix() throws Exception {
+        for (String customer : new String[] {"jean", "Bonb", "JEAN B"}) {
+            mockMvc.perform(get("/orders/search").param("customer", customer))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].orderId").value(5))
+                    .andExpect(jsonPath("$[0].customerName").value("Jean Bonbeur"));
+        }
+    }
+
+    @Test
+    void unknownCustomerIsNotFound() throws Exception {
+        mockMvc.perform(get("/orders/search").param("customer", "zzz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+}
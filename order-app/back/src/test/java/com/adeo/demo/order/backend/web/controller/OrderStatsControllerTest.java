@@ -0,0 +1,36 @@
+package com.adeo.demo.order.backend.web.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The statistics are loaded at startup, after data.sql: they must match the seeded orders.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void statsMatchTheSeedData() throws Exception {
+        mockMvc.perform(get("/orders/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalOrders").value(5))
+                .andExpect(jsonPath("$.ordersByStatus.CREATED").value(2))
+                .andExpect(jsonPath("$.ordersByStatus.PENDING").value(1))
+                .andExpect(jsonPath("$.ordersByStatus.SHIPPED").value(1))
+                .andExpect(jsonPath("$.ordersByStatus.DELIVERED").value(1))
+                .andExpect(jsonPath("$.ordersByStatus.FINISHED").value(0))
+                .andExpect(jsonPath("$.revenueByDay['2024-10-01']").value(100.0))
+                .andExpect(jsonPath("$.revenueByDay['2025-05-04']").value(950.0));
+    }
+}
@@ -0,0 +1,22 @@
+package com.adeo.demo.payment.backend.persistence;
+
+/**
+ * Amounts are stored and summed as a whole number of cents, so that they are exact and need no boxing.
+ * They are converted to and from decimal amounts only at the edge, to keep the {@code totalAmount} JSON fields.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * @return the amount rounded to the nearest cent, in cents
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+}
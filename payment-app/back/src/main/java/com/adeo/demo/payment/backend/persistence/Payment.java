@@ -23,7 +23,8 @@ public class Payment {
 
     private LocalDate paymentDate;
 
-    private Double totalAmount;
+    // Exact amount in cents, see Money
+    private long totalAmountCents;
 
     private String photoUrl;
 
@@ -41,8 +42,8 @@ public class Payment {
     public LocalDate getPaymentDate() { return paymentDate; }
     public void setPaymentDate(LocalDate paymentDate) { this.paymentDate = paymentDate; }
 
-    public Double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
 
     public String getPhotoUrl() { return photoUrl; }
     public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
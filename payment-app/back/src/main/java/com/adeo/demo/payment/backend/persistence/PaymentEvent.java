@@ -0,0 +1,66 @@
+package com.adeo.demo.payment.backend.persistence;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentEventType;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A change to a payment, written in the same transaction as the change itself. The increasing id is the
+ * cursor of the payment change feed.
+ */
+@Entity
+@Table(name = "payment_events")
+public class PaymentEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long paymentId;
+
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentEventType type;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus status;
+
+    private Instant occurredAt;
+
+    public PaymentEvent() {
+    }
+
+    public PaymentEvent(Long paymentId, Long orderId, PaymentEventType type, PaymentStatus status, Instant occurredAt) {
+        this.paymentId = paymentId;
+        this.orderId = orderId;
+        this.type = type;
+        this.status = status;
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public PaymentEventType getType() { return type; }
+    public void setType(PaymentEventType type) { this.type = type; }
+
+    public PaymentStatus getStatus() { return status; }
+    public void setStatus(PaymentStatus status) { this.status = status; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(Instant occurredAt) { this.occurredAt = occurredAt; }
+}
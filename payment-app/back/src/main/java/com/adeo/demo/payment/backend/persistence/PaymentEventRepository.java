@@ -0,0 +1,38 @@
+package com.adeo.demo.payment.backend.persistence;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+
+    /**
+     * Find the payment events recorded after the given one, oldest first
+     *
+     * @param afterId The ID of the last event already read, 0 to read from the start
+     * @param limit   The maximum number of events to return
+     * @return Events with an ID greater than {@code afterId}, ordered by ID
+     */
+    List<PaymentEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Record an UPDATED event with the current status of each of the given payments, in a single
+     * INSERT ... SELECT statement whatever the number of payments
+     *
+     * @param paymentIds The IDs of the payments that changed
+     * @param occurredAt The time of the change
+     * @return The number of events recorded
+     */
+    @Modifying
+    @Query(value = "insert into payment_events (payment_id, order_id, type, status, occurred_at) "
+            + "select id, order_id, 'UPDATED', status, :occurredAt from payment "
+            + "where id in (:paymentIds) order by id", nativeQuery = true)
+    int insertStatusChanges(@Param("paymentIds") Collection<Long> paymentIds, @Param("occurredAt") Instant occurredAt);
+}
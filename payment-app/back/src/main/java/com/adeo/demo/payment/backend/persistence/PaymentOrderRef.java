@@ -0,0 +1,12 @@
+package com.adeo.demo.payment.backend.persistence;
+
+/**
+ * Id of a payment and of the order it belongs to, read by native queries without loading the {@link Payment}
+ * entity.
+ */
+public interface PaymentOrderRef {
+
+    Long getPaymentId();
+
+    Long getOrderId();
+}
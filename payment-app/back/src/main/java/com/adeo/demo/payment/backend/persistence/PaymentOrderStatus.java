@@ -0,0 +1,9 @@
+package com.adeo.demo.payment.backend.persistence;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+
+/**
+ * Status of a payment and the order it belongs to, read without loading the {@link Payment} entity.
+ */
+public record PaymentOrderStatus(Long paymentId, Long orderId, PaymentStatus status) {
+}
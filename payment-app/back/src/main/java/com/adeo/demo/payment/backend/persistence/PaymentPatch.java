@@ -0,0 +1,14 @@
+package com.adeo.demo.payment.backend.persistence;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+
+/**
+ * New values of the payment fields to change. A null field is left unchanged.
+ */
+public record PaymentPatch(String customerName, LocalDate paymentDate, Long totalAmountCents, PaymentStatus status) {
+
+    public boolean isEmpty() {
+        return customerName == null && paymentDate == null && totalAmountCents == null && status == null;
+    }
+}
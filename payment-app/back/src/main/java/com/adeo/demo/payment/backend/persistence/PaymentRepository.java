@@ -1,11 +1,22 @@
 package com.adeo.demo.payment.backend.persistence;
 
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentRepositoryCustom {
     
     /**
      * Find all payments associated with a specific order ID
@@ -14,4 +25,88 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      * @return List of payments for the given order
      */
     List<Payment> findByOrderId(Long orderId);
+
+    /**
+     * Find all payments associated with any of the given order IDs, oldest first
+     *
+     * @param orderIds The IDs of the orders
+     * @return List of payments for the given orders, ordered by payment ID
+     */
+    List<Payment> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds);
+
+    /**
+     * Stream the status of every payment, ordered by order ID then payment ID. Rows are fetched from the
+     * database in chunks and are not kept in the persistence context, so memory does not grow with the table.
+     * Must be called within a transaction, and the stream closed after use.
+     *
+     * @return Stream of payment statuses, the latest payment of an order coming last
+     */
+    @Query("select new com.adeo.demo.payment.backend.persistence.PaymentOrderStatus(p.id, p.orderId, p.status) "
+            + "from Payment p order by p.orderId, p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<PaymentOrderStatus> streamAllOrderByOrderId();
+
+    /**
+     * Find the IDs of all payments in the given status, without loading the entities
+     *
+     * @param status The status to match
+     * @return IDs of the matching payments
+     */
+    @Query("select p.id from Payment p where p.status = :status")
+    List<Long> findIdsByStatus(@Param("status") PaymentStatus status);
+
+    /**
+     * Find the status of a payment, without loading the entity
+     *
+     * @param id The ID of the payment
+     * @return The status of the payment, empty if it does not exist
+     */
+    @Query("select p.status from Payment p where p.id = :id")
+    Optional<PaymentStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Find the ids of the given payments that are in the given status, and of their orders, locking the rows until
+     * the end of the transaction so that their status cannot change before they are updated. Only the two ids are
+     * read, the entities are not loaded. Must be called within a transaction.
+     *
+     * @param ids    The IDs of the payments
+     * @param status The name of the status to match
+     * @return The matching payments, ordered by id
+     */
+    @Query(value = "select id as \"paymentId\", order_id as \"orderId\" from payment "
+            + "where id in (:ids) and status = :status order by id for update", nativeQuery = true)
+    List<PaymentOrderRef> lockOrderRefsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                                       @Param("status") String status);
+
+    /**
+     * Move many payments from one status to another in a single UPDATE statement, without loading them.
+     * Payments no longer in the expected status are left untouched.
+     *
+     * @param ids      The IDs of the payments
+     * @param expected The status the payments must be in
+     * @param next     The new status
+     * @return The number of payments updated
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :next where p.id in :ids and p.status = :expected")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("expected") PaymentStatus expected,
+                       @Param("next") PaymentStatus next);
+
+    /**
+     * Move a payment to a new status only if it is still in the expected one, in a single UPDATE statement.
+     * When several callers race, exactly one of them gets 1.
+     *
+     * @param id          The ID of the payment
+     * @param expected    The status the payment must be in
+     * @param next        The new status
+     * @param paymentDate The new payment date
+     * @return 1 if the payment was updated, 0 if it does not exist or is no longer in the expected status
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :next, p.paymentDate = :paymentDate where p.id = :id and p.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") PaymentStatus expected, @Param("next") PaymentStatus next,
+                     @Param("paymentDate") LocalDate paymentDate);
 }
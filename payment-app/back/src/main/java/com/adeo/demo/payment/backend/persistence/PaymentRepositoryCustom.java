@@ -0,0 +1,14 @@
+package com.adeo.demo.payment.backend.persistence;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Update the given fields of a payment in a single UPDATE statement, without loading it.
+     * Only the non-null fields of the patch are written, so the other columns keep their current value.
+     *
+     * @param id    The ID of the payment
+     * @param patch The fields to change, at least one of them set
+     * @return 1 if the payment was updated, 0 if it does not exist
+     */
+    int patch(Long id, PaymentPatch patch);
+}
@@ -0,0 +1,35 @@
+package com.adeo.demo.payment.backend.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, PaymentPatch patch) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Payment> update = cb.createCriteriaUpdate(Payment.class);
+        Root<Payment> payment = update.from(Payment.class);
+
+        if (patch.customerName() != null) {
+            update.set(payment.get("customerName"), patch.customerName());
+        }
+        if (patch.paymentDate() != null) {
+            update.set(payment.get("paymentDate"), patch.paymentDate());
+        }
+        if (patch.totalAmountCents() != null) {
+            update.set(payment.get("totalAmountCents"), patch.totalAmountCents());
+        }
+        if (patch.status() != null) {
+            update.set(payment.get("status"), patch.status());
+        }
+        update.where(cb.equal(payment.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,15 @@
+package com.adeo.demo.payment.backend.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the caller's deadline has passed, so that the request is abandoned.
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("Request deadline exceeded");
+    }
+}
@@ -0,0 +1,102 @@
+package com.adeo.demo.payment.backend.services;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the result of the writes sent with an Idempotency-Key, so that a client retrying after a timeout
+ * gets the original result instead of writing twice.
+ * <p>
+ * The store is bounded by {@code idempotency.max-size} (least recently used keys are evicted first) and keys
+ * expire after {@code idempotency.ttl}. Concurrent requests with the same key share a single execution: the
+ * first one runs the write, the others wait for its result. A failed write is forgotten, so it can be retried.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public IdempotencyStore(@Value("${idempotency.max-size:10000}") int maxSize,
+                            @Value("${idempotency.ttl:24h}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Runs the write once per key.
+     *
+     * @param key     the Idempotency-Key sent by the client
+     * @param request the request body, which must be the same on every use of the key
+     * @param write   the write to run on the first use of the key
+     * @return the result of the first execution for this key
+     * @throws IdempotencyKeyReuseException if the key was already used with a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> write) {
+        CompletableFuture<Object> result;
+        boolean first = false;
+        synchronized (entries) {
+            long now = System.nanoTime();
+            Entry entry = entries.get(key);
+            if (entry == null || now - entry.expiresAtNanos() >= 0) {
+                entry = new Entry(request, new CompletableFuture<>(), now + ttlNanos);
+                entries.put(key, entry);
+                evictEldest();
+                first = true;
+            } else if (!Objects.equals(entry.request(), request)) {
+                throw new IdempotencyKeyReuseException(key);
+            }
+            result = entry.result();
+        }
+
+        if (first) {
+            try {
+                T value = write.get();
+                result.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                forget(key, result);
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return (T) result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void forget(String key, CompletableFuture<Object> result) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.result() == result) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private record Entry(Object request, CompletableFuture<Object> result, long expiresAtNanos) {
+    }
+}
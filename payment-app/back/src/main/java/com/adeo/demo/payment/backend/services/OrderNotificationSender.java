@@ -0,0 +1,105 @@
+package com.adeo.demo.payment.backend.services;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Pushes committed payment status changes to order-app, so that it can keep its local copy of payment
+ * statuses up to date without calling payment-app on every read.
+ * <p>
+ * Notifications are sent off the request thread, at most {@code order.service.notifications.max-concurrency} at
+ * once so that settling many payments together does not flood order-app. A failed delivery is retried with exponential backoff
+ * up to {@code order.service.notifications.max-attempts} times; order-app ignores changes older than the
+ * one it already has, so retries and out-of-order deliveries are harmless.
+ */
+@Component
+public class OrderNotificationSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationSender.class);
+
+    private final RestTemplate restTemplate;
+    private final String notificationUrl;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Semaphore sendPermits;
+
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OrderNotificationSender(RestTemplate restTemplate,
+                                   @Value("${order.service.base-url:http://localhost:8081}") String orderServiceBaseUrl,
+                                   @Value("${order.service.notifications.enabled:true}") boolean enabled,
+                                   @Value("${order.service.notifications.max-attempts:8}") int maxAttempts,
+                                   @Value("${order.service.notifications.initial-backoff:500ms}") Duration initialBackoff,
+                                   @Value("${order.service.notifications.max-backoff:1m}") Duration maxBackoff,
+                                   @Value("${order.service.notifications.max-concurrency:16}") int maxConcurrency) {
+        this.restTemplate = restTemplate;
+        this.notificationUrl = orderServiceBaseUrl + "/payment-notifications";
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.sendPermits = new Semaphore(maxConcurrency);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryScheduler.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (enabled) {
+            senders.execute(() -> send(event, 1));
+        }
+    }
+
+    private void send(PaymentStatusChangedEvent event, int attempt) {
+        try {
+            // Waiting for a permit only parks the virtual thread
+            sendPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            restTemplate.postForLocation(notificationUrl, event);
+            logger.debug("Order {} notified of payment {} status {}", event.orderId(), event.paymentId(), event.status());
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                logger.error("Giving up notifying order {} of payment {} status {} after {} attempts",
+                        event.orderId(), event.paymentId(), event.status(), attempt, e);
+                return;
+            }
+            long delay = backoffMillis(attempt);
+            logger.warn("Failed to notify order {} of payment {} status (attempt {}), retrying in {} ms: {}",
+                    event.orderId(), event.paymentId(), attempt, delay, e.getMessage());
+            retryScheduler.schedule(() -> senders.execute(() -> send(event, attempt + 1)), delay, TimeUnit.MILLISECONDS);
+        } finally {
+            sendPermits.release();
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+        // Spread retries of notifications that failed together
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+}
@@ -0,0 +1,179 @@
+package com.adeo.demo.payment.backend.services;
+
+import com.adeo.demo.payment.backend.persistence.Payment;
+import com.adeo.demo.payment.backend.persistence.PaymentEvent;
+import com.adeo.demo.payment.backend.persistence.PaymentEventRepository;
+import com.adeo.demo.payment.backend.web.dto.PaymentChangesDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentEventDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentEventType;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transactional outbox of payment changes, read as a feed ordered by event id.
+ * <p>
+ * Every change to a payment records an event in {@code payment_events} within the transaction making the change,
+ * so the feed holds exactly the committed changes. Consumers read the events after the last id they have seen,
+ * optionally waiting for new ones (long polling).
+ * <p>
+ * Event ids are allocated when the row is inserted, not when it is committed, so a smaller id may become visible
+ * after a larger one. The feed stops before such a gap so that consumers never move their cursor past an event
+ * they have not seen yet, unless the gap is older than {@code payments.changes.gap-grace}, in which case the
+ * transaction that took the missing id is assumed to have rolled back.
+ */
+@Component
+public class PaymentChangeFeed {
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final Duration maxWait;
+    private final Duration gapGrace;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final ExecutorService notifier = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PaymentChangeFeed(PaymentEventRepository paymentEventRepository,
+                             @Value("${payments.changes.default-limit:100}") int defaultLimit,
+                             @Value("${payments.changes.max-limit:1000}") int maxLimit,
+                             @Value("${payments.changes.max-wait:30s}") Duration maxWait,
+                             @Value("${payments.changes.gap-grace:5s}") Duration gapGrace) {
+        this.paymentEventRepository = paymentEventRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.maxWait = maxWait;
+        this.gapGrace = gapGrace;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    /**
+     * Records a change of the payment. Must be called within the transaction making the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Payment payment, PaymentEventType type) {
+        record(payment.getId(), payment.getOrderId(), type, payment.getStatus());
+    }
+
+    /**
+     * Records a change of the payment. Must be called within the transaction making the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long paymentId, Long orderId, PaymentEventType type, PaymentStatus status) {
+        paymentEventRepository.save(new PaymentEvent(
+                paymentId, orderId, type, type == PaymentEventType.DELETED ? null : status, Instant.now()));
+        wakeWaitersAfterCommit();
+    }
+
+    /**
+     * Records the status change of the given payments, with a single statement. Only the payments whose status
+     * was actually changed must be passed. Must be called within the transaction making the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(Collection<Long> paymentIds) {
+        if (paymentEventRepository.insertStatusChanges(paymentIds, Instant.now()) > 0) {
+            wakeWaitersAfterCommit();
+        }
+    }
+
+    /**
+     * @param after id of the last event already read, 0 to read from the start
+     * @param limit requested number of events, defaulted and capped by the payments.changes.* settings
+     * @return the next events, possibly none, and the cursor to read the following ones
+     */
+    public PaymentChangesDto getChanges(long after, Integer limit) {
+        int maxEvents = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        Instant gapsSettledBefore = Instant.now().minus(gapGrace);
+        List<PaymentEventDto> events = new ArrayList<>();
+        long cursor = after;
+        for (PaymentEvent event : paymentEventRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(maxEvents))) {
+            if (event.getId() != cursor + 1 && event.getOccurredAt().isAfter(gapsSettledBefore)) {
+                // The missing ids may belong to transactions not committed yet
+                break;
+            }
+            events.add(toDto(event));
+            cursor = event.getId();
+        }
+        return new PaymentChangesDto(events, cursor);
+    }
+
+    /**
+     * Passes the changes after {@code after} to the consumer as soon as there are some, possibly right away.
+     *
+     * @return a handle to call to stop waiting, e.g. when the caller gives up
+     */
+    public Runnable awaitChanges(long after, Integer limit, Consumer<PaymentChangesDto> consumer) {
+        Waiter waiter = new Waiter(after, limit, consumer);
+        waiters.add(waiter);
+        // Checked once registered, so that changes committed in between are not missed
+        offer(waiter);
+        return () -> waiters.remove(waiter);
+    }
+
+    /**
+     * @param waitMillis requested long polling duration, null or 0 not to wait
+     * @return the duration to wait for changes, capped by payments.changes.max-wait
+     */
+    public Duration waitDuration(Long waitMillis) {
+        if (waitMillis == null || waitMillis <= 0) {
+            return Duration.ZERO;
+        }
+        Duration wait = Duration.ofMillis(waitMillis);
+        return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    }
+
+    private void wakeWaitersAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Off the committing thread, which is serving a request
+                notifier.execute(() -> waiters.forEach(PaymentChangeFeed.this::offer));
+            }
+        });
+    }
+
+    private void offer(Waiter waiter) {
+        PaymentChangesDto changes = getChanges(waiter.after, waiter.limit);
+        if (!changes.getEvents().isEmpty() && waiters.remove(waiter)) {
+            waiter.consumer.accept(changes);
+        }
+    }
+
+    private static PaymentEventDto toDto(PaymentEvent event) {
+        return new PaymentEventDto(event.getId(), event.getPaymentId(), event.getOrderId(), event.getType(),
+                event.getStatus(), event.getOccurredAt());
+    }
+
+    // Compared by identity: two consumers waiting on the same cursor are distinct waiters
+    private static final class Waiter {
+        private final long after;
+        private final Integer limit;
+        private final Consumer<PaymentChangesDto> consumer;
+
+        private Waiter(long after, Integer limit, Consumer<PaymentChangesDto> consumer) {
+            this.after = after;
+            this.limit = limit;
+            this.consumer = consumer;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.adeo.demo.payment.backend.services;
+
+import com.adeo.demo.payment.backend.persistence.Payment;
+import com.adeo.demo.payment.backend.persistence.PaymentRepository;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentEventType;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Processes PENDING payments in the background with the {@link PaymentProcessor}.
+ * <p>
+ * Payments are queued once their creation or move into PENDING is committed, on a queue bounded by
+ * {@code payments.processing.queue-capacity}; callers are rejected with {@link PaymentQueueFullException} when it
+ * is full rather than blocked. {@code payments.processing.workers} virtual threads take payments from the queue.
+ * A failed attempt is queued again after an exponential backoff with jitter, and the payment is marked FAILED
+ * after {@code payments.processing.max-attempts} attempts. Payments still PENDING at startup are queued again.
+ * <p>
+ * Metrics: {@code payment.processing.queue.size}, {@code payment.processing.queue.wait},
+ * {@code payment.processing.attempts} (by outcome), {@code payment.processing.settled} (by status) and
+ * {@code payment.processing.rejected}.
+ */
+@Component
+public class PaymentProcessingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentProcessingPipeline.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<Task> queue;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final Timer queueWait;
+    private final Timer successfulAttempts;
+    private final Timer failedAttempts;
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public PaymentProcessingPipeline(PaymentRepository paymentRepository,
+                                     PaymentProcessor paymentProcessor,
+                                     PaymentChangeFeed changeFeed,
+                                     TransactionTemplate transactionTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${payments.processing.queue-capacity:1000}") int queueCapacity,
+                                     @Value("${payments.processing.workers:8}") int workerCount,
+                                     @Value("${payments.processing.max-attempts:5}") int maxAttempts,
+                                     @Value("${payments.processing.initial-backoff:1s}") Duration initialBackoff,
+                                     @Value("${payments.processing.max-backoff:1m}") Duration maxBackoff) {
+        this.paymentRepository = paymentRepository;
+        this.paymentProcessor = paymentProcessor;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("payment.processing.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.queueWait = Timer.builder("payment.processing.queue.wait").register(meterRegistry);
+        this.successfulAttempts = Timer.builder("payment.processing.attempts").tag("outcome", "success").register(meterRegistry);
+        this.failedAttempts = Timer.builder("payment.processing.attempts").tag("outcome", "failure").register(meterRegistry);
+        this.completed = Counter.builder("payment.processing.settled").tag("status", "COMPLETED").register(meterRegistry);
+        this.failed = Counter.builder("payment.processing.settled").tag("status", "FAILED").register(meterRegistry);
+        this.rejected = Counter.builder("payment.processing.rejected").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("payment-worker-" + i).start(this::work));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryScheduler.shutdownNow();
+        workers.forEach(Thread::interrupt);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void resumePendingPayments() {
+        List<Long> paymentIds = paymentRepository.findIdsByStatus(PaymentStatus.PENDING);
+        if (!paymentIds.isEmpty()) {
+            logger.info("Queuing {} payments left PENDING for processing", paymentIds.size());
+            paymentIds.forEach(paymentId -> enqueue(new Task(paymentId, 1, System.nanoTime())));
+        }
+    }
+
+    /**
+     * Fails fast when the queue is full, so that new payments are refused before anything is written, and
+     * transactions moving payments into PENDING are rolled back.
+     *
+     * @throws PaymentQueueFullException if no more payments can be queued
+     */
+    public void ensureCapacity() {
+        if (queue.remainingCapacity() == 0) {
+            rejected.increment();
+            throw new PaymentQueueFullException();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentProcessingRequested(PaymentProcessingRequestedEvent event) {
+        enqueue(new Task(event.paymentId(), 1, System.nanoTime()));
+    }
+
+    private void enqueue(Task task) {
+        if (!queue.offer(task)) {
+            // Filled up since the capacity check: try again later rather than block the caller
+            rejected.increment();
+            scheduleRetry(task.paymentId(), task.attempt());
+        }
+    }
+
+    private void scheduleRetry(Long paymentId, int attempt) {
+        retryScheduler.schedule(() -> enqueue(new Task(paymentId, attempt, System.nanoTime())),
+                backoffMillis(attempt), TimeUnit.MILLISECONDS);
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            queueWait.record(System.nanoTime() - task.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            try {
+                process(task);
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error while processing payment {}", task.paymentId(), e);
+            }
+        }
+    }
+
+    private void process(Task task) {
+        Optional<Payment> payment = paymentRepository.findById(task.paymentId());
+        if (payment.isEmpty() || payment.get().getStatus() != PaymentStatus.PENDING) {
+            // Deleted or updated by another request in the meantime
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            paymentProcessor.process(payment.get());
+        } catch (Exception e) {
+            failedAttempts.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task.attempt() >= maxAttempts) {
+                logger.warn("Payment {} failed after {} attempts: {}", task.paymentId(), task.attempt(), e.getMessage());
+                settle(payment.get(), PaymentStatus.FAILED);
+            } else {
+                logger.info("Payment {} attempt {} failed, retrying: {}", task.paymentId(), task.attempt(), e.getMessage());
+                scheduleRetry(task.paymentId(), task.attempt() + 1);
+            }
+            return;
+        }
+        successfulAttempts.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        settle(payment.get(), PaymentStatus.COMPLETED);
+    }
+
+    private void settle(Payment payment, PaymentStatus status) {
+        transactionTemplate.executeWithoutResult(transaction -> {
+            // Only a payment still PENDING is settled, so that a concurrent update is not overwritten
+            if (paymentRepository.updateStatus(payment.getId(), PaymentStatus.PENDING, status, LocalDate.now()) == 1) {
+                (status == PaymentStatus.COMPLETED ? completed : failed).increment();
+                changeFeed.record(payment.getId(), payment.getOrderId(), PaymentEventType.UPDATED, status);
+                eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                        payment.getId(), payment.getOrderId(), status, Instant.now()));
+            }
+        });
+    }
+
+    private long backoffMillis(int attempt) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+        // Spread retries of payments that failed together
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private record Task(Long paymentId, int attempt, long enqueuedAtNanos) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.adeo.demo.payment.backend.services;
+
+/**
+ * Published when a payment is created or retried in PENDING status, so that it is queued for processing once
+ * the transaction is committed.
+ */
+public record PaymentProcessingRequestedEvent(Long paymentId) {
+}
@@ -0,0 +1,16 @@
+package com.adeo.demo.payment.backend.services;
+
+import com.adeo.demo.payment.backend.persistence.Payment;
+
+/**
+ * Charges a payment with the payment provider. Called by {@link PaymentProcessingPipeline} workers, never on a
+ * request thread, so implementations may block.
+ */
+public interface PaymentProcessor {
+
+    /**
+     * Returns normally when the payment went through. Any exception is a failed attempt, which the pipeline
+     * retries with backoff until {@code payments.processing.max-attempts} is reached.
+     */
+    void process(Payment payment) throws Exception;
+}
@@ -0,0 +1,15 @@
+package com.adeo.demo.payment.backend.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the payment processing queue is full, so that new work is rejected instead of piling up.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PaymentQueueFullException extends RuntimeException {
+
+    public PaymentQueueFullException() {
+        super("Payment processing queue is full, try again later");
+    }
+}
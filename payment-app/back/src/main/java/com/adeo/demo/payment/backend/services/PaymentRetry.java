@@ -0,0 +1,13 @@
+package com.adeo.demo.payment.backend.services;
+
+import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+
+/**
+ * Outcome of a payment retry.
+ *
+ * @param payment the payment after the call
+ * @param applied true only for the call that moved the payment out of FAILED; concurrent or repeated retries
+ *                of the same payment get false and the payment as the winning retry left it
+ */
+public record PaymentRetry(PaymentDto payment, boolean applied) {
+}
@@ -1,14 +1,27 @@
 package com.adeo.demo.payment.backend.services;
 
+import com.adeo.demo.payment.backend.persistence.Money;
 import com.adeo.demo.payment.backend.persistence.Payment;
+import com.adeo.demo.payment.backend.persistence.PaymentOrderRef;
+import com.adeo.demo.payment.backend.persistence.PaymentOrderStatus;
+import com.adeo.demo.payment.backend.persistence.PaymentPatch;
 import com.adeo.demo.payment.backend.persistence.PaymentRepository;
 import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentOrderStatusDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentPatchDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentEventType;
 import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,10 +29,17 @@ import org.springframework.transaction.annotation.Transactional;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentProcessingPipeline processingPipeline;
+    private final PaymentChangeFeed changeFeed;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, ApplicationEventPublisher eventPublisher,
+                          PaymentProcessingPipeline processingPipeline, PaymentChangeFeed changeFeed) {
         this.paymentRepository = paymentRepository;
+        this.eventPublisher = eventPublisher;
+        this.processingPipeline = processingPipeline;
+        this.changeFeed = changeFeed;
     }
 
     public List<PaymentDto> getAllPayments() {
@@ -34,11 +54,43 @@ public class PaymentService {
     }
 
     public List<PaymentDto> getPaymentsByOrderId(Long orderId) {
-        return paymentRepository.findByOrderId(orderId).stream()
+        RequestDeadline.check();
+        List<Payment> payments = paymentRepository.findByOrderId(orderId);
+        RequestDeadline.check();
+        return payments.stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
+    public Map<Long, PaymentStatus> getLatestPaymentStatusByOrderIds(List<Long> orderIds) {
+        RequestDeadline.check();
+        Map<Long, PaymentStatus> statuses = new HashMap<>();
+        // Payments come back ordered by id, so the last one seen for an order is the latest
+        for (Payment payment : paymentRepository.findByOrderIdInOrderByIdAsc(orderIds)) {
+            statuses.put(payment.getOrderId(), payment.getStatus());
+        }
+        RequestDeadline.check();
+        return statuses;
+    }
+
+    /**
+     * Passes the status of every payment to the consumer, ordered by order id then payment id, without
+     * loading all payments in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamPaymentStatuses(Consumer<PaymentOrderStatusDto> consumer) {
+        try (Stream<PaymentOrderStatus> payments = paymentRepository.streamAllOrderByOrderId()) {
+            payments.forEach(payment ->
+                    consumer.accept(new PaymentOrderStatusDto(payment.paymentId(), payment.orderId(), payment.status())));
+        }
+    }
+
+    /**
+     * Creates a payment. A PENDING payment is processed in the background once created, see
+     * {@link PaymentProcessingPipeline}.
+     *
+     * @throws PaymentQueueFullException if a PENDING payment cannot be queued for processing
+     */
     @Transactional
     public PaymentDto createPayment(PaymentDto paymentDto) {
         Payment payment = toEntity(paymentDto);
@@ -50,7 +102,15 @@ public class PaymentService {
         if (payment.getPaymentDate() == null) {
             payment.setPaymentDate(LocalDate.now());
         }
+        if (payment.getStatus() == PaymentStatus.PENDING) {
+            processingPipeline.ensureCapacity();
+        }
         Payment saved = paymentRepository.save(payment);
+        changeFeed.record(saved, PaymentEventType.CREATED);
+        publishStatusChange(saved);
+        if (saved.getStatus() == PaymentStatus.PENDING) {
+            eventPublisher.publishEvent(new PaymentProcessingRequestedEvent(saved.getId()));
+        }
         return toDto(saved);
     }
 
@@ -60,35 +120,134 @@ public class PaymentService {
 
         Optional<Payment> existing = paymentRepository.findById(paymentDto.getPaymentId());
         if (existing.isPresent()) {
-            Payment payment = toEntity(paymentDto);
-            Payment saved = paymentRepository.save(payment);
-            return toDto(saved);
+            // Update the managed entity in place: it is written back on commit, without another SELECT,
+            // and the fields the DTO does not carry (photoUrl) are kept
+            Payment payment = existing.get();
+            PaymentStatus previousStatus = payment.getStatus();
+            payment.setOrderId(paymentDto.getOrderId());
+            payment.setCustomerName(paymentDto.getCustomerName());
+            payment.setPaymentDate(paymentDto.getPaymentDate());
+            payment.setTotalAmountCents(Money.toCents(paymentDto.getTotalAmount()));
+            payment.setStatus(paymentDto.getStatus());
+            changeFeed.record(payment, PaymentEventType.UPDATED);
+            if (payment.getStatus() != previousStatus) {
+                publishStatusChange(payment);
+                if (payment.getStatus() == PaymentStatus.PENDING) {
+                    requestProcessing(List.of(payment.getId()));
+                }
+            }
+            return toDto(payment);
         }
         return null;
     }
 
+    /**
+     * Changes only the fields set in the patch, with a single UPDATE statement.
+     *
+     * @return the patched payment, or null if it does not exist
+     */
     @Transactional
-    public PaymentDto retryPayment(Long paymentId) {
-        Optional<Payment> optionalPayment = paymentRepository.findById(paymentId);
-        if (optionalPayment.isPresent()) {
-            Payment payment = optionalPayment.get();
-
-            // Only retry failed payments
-            if (payment.getStatus() == PaymentStatus.FAILED) {
-                // Simulate payment processing with 70% success rate
-                payment.setStatus(PaymentStatus.COMPLETED);
-                payment.setPaymentDate(LocalDate.now()); // Update payment date
-                Payment saved = paymentRepository.save(payment);
-                return toDto(saved);
-            }
-            return toDto(payment);
+    public PaymentDto patchPayment(Long paymentId, PaymentPatchDto patchDto) {
+        Long totalAmountCents = patchDto.getTotalAmount() != null ? Money.toCents(patchDto.getTotalAmount()) : null;
+        PaymentPatch patch = new PaymentPatch(patchDto.getCustomerName(), patchDto.getPaymentDate(),
+                totalAmountCents, patchDto.getStatus());
+        if (patch.isEmpty()) {
+            return getPayment(paymentId);
         }
-        return null;
+        // The previous status is only read when moving into PENDING, which queues the payment for processing
+        boolean toPending = patch.status() == PaymentStatus.PENDING
+                && paymentRepository.findStatusById(paymentId).filter(PaymentStatus.PENDING::equals).isEmpty();
+        if (paymentRepository.patch(paymentId, patch) == 0) {
+            return null;
+        }
+        Payment patched = paymentRepository.findById(paymentId).orElseThrow();
+        changeFeed.record(patched, PaymentEventType.UPDATED);
+        if (patch.status() != null) {
+            // Otherwise order-app ignores a notification of the status it already has
+            publishStatusChange(patched);
+        }
+        if (toPending) {
+            requestProcessing(List.of(paymentId));
+        }
+        return toDto(patched);
+    }
+
+    /**
+     * Moves the given payments from one status to another with a single UPDATE statement, whatever their number.
+     * Payments not in {@code fromStatus} are left untouched.
+     *
+     * @return the number of payments updated
+     */
+    @Transactional
+    public int updatePaymentStatuses(List<Long> paymentIds, PaymentStatus fromStatus, PaymentStatus toStatus) {
+        // Lock the payments to move first, so that exactly those are updated, recorded and notified: payments
+        // already in toStatus did not change
+        List<PaymentOrderRef> payments = paymentRepository.lockOrderRefsByIdInAndStatus(paymentIds, fromStatus.name());
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        List<Long> movedIds = payments.stream().map(PaymentOrderRef::getPaymentId).toList();
+        int updated = paymentRepository.updateStatuses(movedIds, fromStatus, toStatus);
+        changeFeed.recordStatusChanges(movedIds);
+        for (PaymentOrderRef payment : payments) {
+            publishStatusChange(payment.getPaymentId(), payment.getOrderId(), toStatus);
+        }
+        if (toStatus == PaymentStatus.PENDING && fromStatus != PaymentStatus.PENDING) {
+            requestProcessing(movedIds);
+        }
+        return updated;
+    }
+
+    /**
+     * Retries a FAILED payment: it is moved back to PENDING with a conditional UPDATE and processed again in the
+     * background. Concurrent retries neither lock the row for a read-modify-write nor process the payment twice:
+     * only one of them is reported as applied.
+     *
+     * @return the outcome of the retry, or null if the payment does not exist
+     * @throws PaymentQueueFullException if the payment cannot be queued for processing, the retry is rolled back
+     */
+    @Transactional
+    public PaymentRetry retryPayment(Long paymentId) {
+        boolean applied = paymentRepository.updateStatus(
+                paymentId, PaymentStatus.FAILED, PaymentStatus.PENDING, LocalDate.now()) == 1;
+        Optional<Payment> payment = paymentRepository.findById(paymentId);
+        if (payment.isEmpty()) {
+            return null;
+        }
+        if (applied) {
+            changeFeed.record(payment.get(), PaymentEventType.UPDATED);
+            publishStatusChange(payment.get());
+            requestProcessing(List.of(paymentId));
+        }
+        return new PaymentRetry(toDto(payment.get()), applied);
     }
 
     @Transactional
     public void deletePayment(Long paymentId) {
-        paymentRepository.deleteById(paymentId);
+        paymentRepository.findById(paymentId).ifPresent(payment -> {
+            paymentRepository.delete(payment);
+            changeFeed.record(payment, PaymentEventType.DELETED);
+            // A null status tells order-app that the payment no longer exists
+            publishStatusChange(payment.getId(), payment.getOrderId(), null);
+        });
+    }
+
+    /**
+     * Queues payments just moved into PENDING for processing once the transaction commits. When the queue is full
+     * the {@link PaymentQueueFullException} rolls the transaction back, so that no payment is left PENDING without
+     * being processed.
+     */
+    private void requestProcessing(List<Long> paymentIds) {
+        processingPipeline.ensureCapacity();
+        paymentIds.forEach(paymentId -> eventPublisher.publishEvent(new PaymentProcessingRequestedEvent(paymentId)));
+    }
+
+    private void publishStatusChange(Payment payment) {
+        publishStatusChange(payment.getId(), payment.getOrderId(), payment.getStatus());
+    }
+
+    private void publishStatusChange(Long paymentId, Long orderId, PaymentStatus status) {
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(paymentId, orderId, status, Instant.now()));
     }
 
     // --- Mapping helpers ---
@@ -98,7 +257,7 @@ public class PaymentService {
                 payment.getOrderId(),
                 payment.getCustomerName(),
                 payment.getPaymentDate(),
-                payment.getTotalAmount(),
+                Money.toAmount(payment.getTotalAmountCents()),
                 payment.getStatus()
         );
     }
@@ -109,7 +268,7 @@ public class PaymentService {
         payment.setOrderId(dto.getOrderId());
         payment.setCustomerName(dto.getCustomerName());
         payment.setPaymentDate(dto.getPaymentDate());
-        payment.setTotalAmount(dto.getTotalAmount());
+        payment.setTotalAmountCents(Money.toCents(dto.getTotalAmount()));
         payment.setStatus(dto.getStatus());
         return payment;
     }
@@ -0,0 +1,11 @@
+package com.adeo.demo.payment.backend.services;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.Instant;
+
+/**
+ * Published whenever a payment gets a new status, or is deleted with a null status, so that order-app can be
+ * notified once the change is committed.
+ */
+public record PaymentStatusChangedEvent(Long paymentId, Long orderId, PaymentStatus status, Instant changedAt) {
+}
@@ -0,0 +1,36 @@
+package com.adeo.demo.payment.backend.services;
+
+/**
+ * Deadline of the request being served by the current thread, when the caller sent one in the
+ * {@value #TIMEOUT_HEADER} header. Work is abandoned once it has passed, since nobody waits for the result anymore.
+ */
+public final class RequestDeadline {
+
+    /**
+     * Milliseconds left before the caller gives up on the request.
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(long timeoutMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + timeoutMillis * 1_000_000);
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline of the current request has passed
+     */
+    public static void check() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline != null && deadline - System.nanoTime() <= 0) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.adeo.demo.payment.backend.services;
+
+import com.adeo.demo.payment.backend.persistence.Payment;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in for a payment provider: each attempt takes {@code payments.processor.simulated.latency} and goes
+ * through with probability {@code payments.processor.simulated.success-rate}.
+ * Used unless {@code payments.processor} names another processor.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.processor", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentProcessor implements PaymentProcessor {
+
+    private final double successRate;
+    private final Duration latency;
+
+    public SimulatedPaymentProcessor(@Value("${payments.processor.simulated.success-rate:0.7}") double successRate,
+                                     @Value("${payments.processor.simulated.latency:200ms}") Duration latency) {
+        this.successRate = successRate;
+        this.latency = latency;
+    }
+
+    @Override
+    public void process(Payment payment) throws InterruptedException {
+        Thread.sleep(latency);
+        if (ThreadLocalRandom.current().nextDouble() >= successRate) {
+            throw new IllegalStateException("Payment " + payment.getId() + " declined by the simulated processor");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.adeo.demo.payment.backend.web;
+
+import com.adeo.demo.payment.backend.services.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts the {@link RequestDeadline} of requests carrying a {@value RequestDeadline#TIMEOUT_HEADER} header.
+ * Requests arriving with no time left are answered 504 right away.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String timeout = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (timeout == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(timeout.trim());
+        } catch (NumberFormatException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + RequestDeadline.TIMEOUT_HEADER);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Request deadline exceeded");
+            return;
+        }
+        RequestDeadline.start(timeoutMillis);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
@@ -1,31 +1,63 @@
 package com.adeo.demo.payment.backend.web.controller;
 
+import com.adeo.demo.payment.backend.services.IdempotencyStore;
+import com.adeo.demo.payment.backend.services.PaymentChangeFeed;
+import com.adeo.demo.payment.backend.services.PaymentRetry;
 import com.adeo.demo.payment.backend.services.PaymentService;
+import com.adeo.demo.payment.backend.web.dto.PaymentChangesDto;
 import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentPatchDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentStatusUpdateDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentStatusUpdateResultDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = PaymentController.RETRY_APPLIED_HEADER)
 @RequestMapping("/payments")
 public class PaymentController {
-    
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String RETRY_APPLIED_HEADER = "X-Retry-Applied";
+    static final String NDJSON = "application/x-ndjson";
+
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotencyStore;
+    private final PaymentChangeFeed paymentChangeFeed;
+    private final ObjectMapper objectMapper;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyStore idempotencyStore,
+                             PaymentChangeFeed paymentChangeFeed, ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.idempotencyStore = idempotencyStore;
+        this.paymentChangeFeed = paymentChangeFeed;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -57,21 +89,91 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/order-status")
+    public ResponseEntity<Map<Long, PaymentStatus>> getPaymentStatusByOrderIds(@RequestParam List<Long> orderIds) {
+        logger.info("Request received to fetch payment status for {} orders", orderIds.size());
+        Map<Long, PaymentStatus> statuses = paymentService.getLatestPaymentStatusByOrderIds(orderIds);
+        logger.info("Returning payment status for {} orders", statuses.size());
+        return ResponseEntity.ok(statuses);
+    }
+
+    /**
+     * Streams the status of every payment as newline-delimited JSON, ordered by order id then payment id,
+     * so that clients can merge it with their own sorted data without loading either side in memory.
+     */
+    @GetMapping(value = "/order-status/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamPaymentStatuses() {
+        logger.info("Request received to stream all payment statuses");
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(new BufferedOutputStream(outputStream))) {
+                paymentService.streamPaymentStatuses(payment -> {
+                    try {
+                        writer.write(payment);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Returns the payment changes recorded after the {@code after} cursor, in order and without gaps. Pass the
+     * returned cursor as {@code after} to get the next ones. With {@code waitMs}, the response is held until
+     * there are changes or the wait is over (long polling), instead of returning an empty page right away.
+     */
+    @GetMapping("/changes")
+    public DeferredResult<ResponseEntity<PaymentChangesDto>> getPaymentChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long waitMs) {
+        logger.info("Request received to fetch payment changes after {}", after);
+        Duration wait = paymentChangeFeed.waitDuration(waitMs);
+        if (wait.isZero()) {
+            DeferredResult<ResponseEntity<PaymentChangesDto>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.ok(paymentChangeFeed.getChanges(after, limit)));
+            return result;
+        }
+        DeferredResult<ResponseEntity<PaymentChangesDto>> result = new DeferredResult<>(wait.toMillis(),
+                ResponseEntity.ok(new PaymentChangesDto(List.of(), after)));
+        Runnable stopWaiting = paymentChangeFeed.awaitChanges(after, limit,
+                changes -> result.setResult(ResponseEntity.ok(changes)));
+        result.onCompletion(stopWaiting);
+        return result;
+    }
+
+    /**
+     * Creates a payment. When an {@value #IDEMPOTENCY_KEY_HEADER} header is sent, retries with the same key get
+     * the payment created by the first request instead of creating another one.
+     */
     @PostMapping
-    public ResponseEntity<PaymentDto> createPayment(@RequestBody PaymentDto paymentDto) {
+    public ResponseEntity<PaymentDto> createPayment(@RequestBody PaymentDto paymentDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         logger.info("Request received to create a new payment: {}", paymentDto);
-        PaymentDto created = paymentService.createPayment(paymentDto);
+        PaymentDto created = idempotencyKey == null
+                ? paymentService.createPayment(paymentDto)
+                : idempotencyStore.execute(idempotencyKey, paymentDto, () -> paymentService.createPayment(paymentDto));
         logger.info("Payment created successfully with id: {}", created.getPaymentId());
         return ResponseEntity.ok(created);
     }
     
+    /**
+     * Retries a FAILED payment. The {@value #RETRY_APPLIED_HEADER} response header tells whether this call
+     * performed the retry (true) or found it already done, e.g. by a concurrent call (false).
+     */
     @PostMapping("/{id}/retry")
     public ResponseEntity<PaymentDto> retryPayment(@PathVariable Long id) {
         logger.info("Request received to retry payment with id: {}", id);
-        PaymentDto retried = paymentService.retryPayment(id);
-        if (retried != null) {
-            logger.info("Payment retry successful for id: {}, new status: {}", id, retried.getStatus());
-            return ResponseEntity.ok(retried);
+        PaymentRetry retry = paymentService.retryPayment(id);
+        if (retry != null) {
+            logger.info("Payment retry {} for id: {}, status: {}", retry.applied() ? "applied" : "not applied", id,
+                    retry.payment().getStatus());
+            return ResponseEntity.ok()
+                    .header(RETRY_APPLIED_HEADER, String.valueOf(retry.applied()))
+                    .body(retry.payment());
         } else {
             logger.warn("Payment with id {} not found for retry", id);
             return ResponseEntity.notFound().build();
@@ -92,6 +194,40 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Changes only the fields sent, with a single UPDATE statement.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<PaymentDto> patchPayment(@PathVariable Long id, @RequestBody PaymentPatchDto patchDto) {
+        logger.info("Request received to patch payment with id: {}", id);
+        PaymentDto patched = paymentService.patchPayment(id, patchDto);
+        if (patched != null) {
+            logger.info("Payment with id {} patched successfully", id);
+            return ResponseEntity.ok(patched);
+        } else {
+            logger.warn("Payment with id {} not found for patch", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Moves many payments from one status to another with a single UPDATE statement, e.g. to settle a batch
+     * of PENDING payments. Payments not in {@code fromStatus} are skipped.
+     */
+    @PatchMapping("/status")
+    public ResponseEntity<PaymentStatusUpdateResultDto> updatePaymentStatuses(@RequestBody PaymentStatusUpdateDto update) {
+        if (update.getPaymentIds() == null || update.getFromStatus() == null || update.getToStatus() == null) {
+            logger.warn("Bulk payment status update requires paymentIds, fromStatus and toStatus");
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Request received to move {} payments from {} to {}",
+                update.getPaymentIds().size(), update.getFromStatus(), update.getToStatus());
+        int updated = update.getPaymentIds().isEmpty() ? 0 : paymentService.updatePaymentStatuses(
+                update.getPaymentIds(), update.getFromStatus(), update.getToStatus());
+        logger.info("{} payments moved to {}", updated, update.getToStatus());
+        return ResponseEntity.ok(new PaymentStatusUpdateResultDto(update.getPaymentIds().size(), updated));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePayment(@PathVariable Long id) {
         logger.info("Request received to delete payment with id: {}", id);
@@ -0,0 +1,13 @@
+package com.adeo.demo.payment.backend.web.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PaymentChangesDto {
+    private List<PaymentEventDto> events;
+    // Pass as "after" to get the next changes; unchanged when there are none yet
+    private long cursor;
+}
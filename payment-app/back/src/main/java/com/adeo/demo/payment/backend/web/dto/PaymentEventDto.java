@@ -0,0 +1,19 @@
+package com.adeo.demo.payment.backend.web.dto;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentEventType;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PaymentEventDto {
+    private Long eventId;
+    private Long paymentId;
+    private Long orderId;
+    private PaymentEventType type;
+    // Status of the payment after the change, null for DELETED
+    private PaymentStatus status;
+    private Instant occurredAt;
+}
@@ -0,0 +1,13 @@
+package com.adeo.demo.payment.backend.web.dto;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PaymentOrderStatusDto {
+    private Long paymentId;
+    private Long orderId;
+    private PaymentStatus status;
+}
@@ -0,0 +1,18 @@
+package com.adeo.demo.payment.backend.web.dto;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Partial update of a payment: only the fields that are set are changed.
+ */
+@Data
+@AllArgsConstructor
+public class PaymentPatchDto {
+    private String customerName;
+    private LocalDate paymentDate;
+    private Double totalAmount;
+    private PaymentStatus status;
+}
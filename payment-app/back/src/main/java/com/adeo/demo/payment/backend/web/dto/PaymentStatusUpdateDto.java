@@ -0,0 +1,17 @@
+package com.adeo.demo.payment.backend.web.dto;
+
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Moves many payments from one status to another, e.g. the PENDING payments of a settlement batch to COMPLETED.
+ */
+@Data
+@AllArgsConstructor
+public class PaymentStatusUpdateDto {
+    private List<Long> paymentIds;
+    private PaymentStatus fromStatus;
+    private PaymentStatus toStatus;
+}
@@ -0,0 +1,12 @@
+package com.adeo.demo.payment.backend.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PaymentStatusUpdateResultDto {
+    private int requestedPayments;
+    // Payments not found or no longer in the expected status are not counted
+    private int updatedPayments;
+}
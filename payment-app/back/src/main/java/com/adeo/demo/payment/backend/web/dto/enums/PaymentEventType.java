@@ -0,0 +1,7 @@
+package com.adeo.demo.payment.backend.web.dto.enums;
+
+public enum PaymentEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -2,23 +2,38 @@
 -- This script creates the database schema for managing payments
 
 -- Drop tables if they exist (for development/testing purposes)
+DROP TABLE IF EXISTS payment_events;
 DROP TABLE IF EXISTS payment;
 
 -- Create payment table
+-- Amounts are stored as integer cents, so that they and their sums are exact
 CREATE TABLE payment (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     order_id BIGINT NOT NULL,
     customer_name VARCHAR(255) NOT NULL,
     payment_date DATE NOT NULL,
-    total_amount DECIMAL(10,2) NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
     photo_url VARCHAR(500),
     status VARCHAR(50) NOT NULL,
     CONSTRAINT chk_payment_status CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED')),
-    CONSTRAINT chk_payment_total_amount CHECK (total_amount >= 0)
+    CONSTRAINT chk_payment_total_amount CHECK (total_amount_cents >= 0)
 );
 
 -- Create indexes for better performance
-CREATE INDEX idx_payment_order_id ON payment(order_id);
+-- Also serves the payment status stream, read in (order_id, id) order
+CREATE INDEX idx_payment_order_id ON payment(order_id, id);
 CREATE INDEX idx_payment_status ON payment(status);
 CREATE INDEX idx_payment_customer_name ON payment(customer_name);
 CREATE INDEX idx_payment_date ON payment(payment_date);
+
+-- Outbox of payment changes, written in the same transaction as the change and read in id order by the
+-- payment change feed. Deleted payments keep their events, so there is no foreign key to payment.
+CREATE TABLE payment_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    payment_id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    status VARCHAR(50),
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT chk_payment_event_type CHECK (type IN ('CREATED', 'UPDATED', 'DELETED'))
+);
@@ -0,0 +1,72 @@
+package com.adeo.demo.payment.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeo.demo.payment.backend.persistence.PaymentEvent;
+import com.adeo.demo.payment.backend.persistence.PaymentEventRepository;
+import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentEventType;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+/**
+ * A bulk status update on a mixed batch, where some payments are already in the target status, must only record
+ * and notify the payments it actually moved.
+ */
+@SpringBootTest(properties = {
+        "order.service.notifications.enabled=false",
+        "payments.processing.workers=0"
+})
+@RecordApplicationEvents
+class PaymentBulkStatusUpdateTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Test
+    void onlyMovedPaymentsAreRecordedAndNotified() {
+        List<Long> pendingIds = new ArrayList<>();
+        List<Long> completedIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            pendingIds.add(createPayment(2000L + i, PaymentStatus.PENDING));
+        }
+        for (int i = 0; i < 2; i++) {
+            completedIds.add(createPayment(2100L + i, PaymentStatus.COMPLETED));
+        }
+        List<Long> allIds = new ArrayList<>(pendingIds);
+        allIds.addAll(completedIds);
+        applicationEvents.clear();
+
+        int updated = paymentService.updatePaymentStatuses(allIds, PaymentStatus.PENDING, PaymentStatus.COMPLETED);
+
+        assertThat(updated).isEqualTo(3);
+        List<PaymentEvent> updateEvents = paymentEventRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.unlimited())
+                .stream()
+                .filter(event -> event.getType() == PaymentEventType.UPDATED && allIds.contains(event.getPaymentId()))
+                .toList();
+        assertThat(updateEvents).extracting(PaymentEvent::getPaymentId).containsExactlyInAnyOrderElementsOf(pendingIds);
+        assertThat(updateEvents).extracting(PaymentEvent::getStatus).containsOnly(PaymentStatus.COMPLETED);
+        assertThat(applicationEvents.stream(PaymentStatusChangedEvent.class))
+                .extracting(PaymentStatusChangedEvent::paymentId)
+                .containsExactlyInAnyOrderElementsOf(pendingIds);
+    }
+
+    private Long createPayment(Long orderId, PaymentStatus status) {
+        return paymentService.createPayment(new PaymentDto(
+                null, orderId, "Bulk " + orderId, LocalDate.of(2025, 1, 1), 10.0, status)).getPaymentId();
+    }
+}
@@ -0,0 +1,120 @@
+package com.adeo.demo.payment.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.adeo.demo.payment.backend.persistence.PaymentRepository;
+import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentPatchDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Payments created or moved into PENDING are processed in the background, failed attempts being retried until
+ * the payment goes through or runs out of attempts.
+ */
+@SpringBootTest(properties = {
+        "order.service.notifications.enabled=false",
+        "payments.processing.max-attempts=3",
+        "payments.processing.initial-backoff=10ms",
+        "payments.processing.max-backoff=50ms"
+})
+class PaymentProcessingPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @MockitoBean
+    private PaymentProcessor paymentProcessor;
+
+    @Test
+    void failedAttemptsAreRetriedUntilThePaymentGoesThrough() throws Exception {
+        doThrow(new IllegalStateException("declined"))
+                .doThrow(new IllegalStateException("declined"))
+                .doNothing()
+                .when(paymentProcessor).process(any());
+
+        Long paymentId = createPendingPayment(3000L);
+
+        assertThat(awaitSettled(paymentId)).isEqualTo(PaymentStatus.COMPLETED);
+        verify(paymentProcessor, timeout(TIMEOUT.toMillis()).times(3)).process(any());
+    }
+
+    @Test
+    void paymentFailsWhenAttemptsRunOut() throws Exception {
+        doThrow(new IllegalStateException("declined")).when(paymentProcessor).process(any());
+
+        Long paymentId = createPendingPayment(3001L);
+
+        assertThat(awaitSettled(paymentId)).isEqualTo(PaymentStatus.FAILED);
+        verify(paymentProcessor, timeout(TIMEOUT.toMillis()).times(3)).process(any());
+    }
+
+    @Test
+    void retriedPaymentIsProcessedAgain() throws Exception {
+        doNothing().when(paymentProcessor).process(any());
+        Long paymentId = paymentService.createPayment(new PaymentDto(
+                null, 3002L, "Failed", LocalDate.of(2025, 1, 1), 10.0, PaymentStatus.FAILED)).getPaymentId();
+
+        PaymentRetry retry = paymentService.retryPayment(paymentId);
+
+        assertThat(retry.applied()).isTrue();
+        assertThat(retry.payment().getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(awaitSettled(paymentId)).isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    @Test
+    void paymentsMovedBackToPendingAreProcessedAgain() throws Exception {
+        doNothing().when(paymentProcessor).process(any());
+        Long patchedId = createFailedPayment(3003L);
+        Long updatedId = createFailedPayment(3004L);
+        Long bulkUpdatedId = createFailedPayment(3005L);
+
+        paymentService.patchPayment(patchedId, new PaymentPatchDto(null, null, null, PaymentStatus.PENDING));
+        PaymentDto update = paymentService.getPayment(updatedId);
+        update.setStatus(PaymentStatus.PENDING);
+        paymentService.updatePayment(update);
+        paymentService.updatePaymentStatuses(List.of(bulkUpdatedId), PaymentStatus.FAILED, PaymentStatus.PENDING);
+
+        assertThat(awaitSettled(patchedId)).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(awaitSettled(updatedId)).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(awaitSettled(bulkUpdatedId)).isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    private Long createFailedPayment(Long orderId) {
+        return paymentService.createPayment(new PaymentDto(
+                null, orderId, "Failed", LocalDate.of(2025, 1, 1), 10.0, PaymentStatus.FAILED)).getPaymentId();
+    }
+
+    private Long createPendingPayment(Long orderId) {
+        PaymentDto created = paymentService.createPayment(new PaymentDto(
+                null, orderId, "Pipeline", LocalDate.of(2025, 1, 1), 10.0, null));
+        assertThat(created.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        return created.getPaymentId();
+    }
+
+    private PaymentStatus awaitSettled(Long paymentId) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        PaymentStatus status = paymentRepository.findById(paymentId).orElseThrow().getStatus();
+        while (status == PaymentStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = paymentRepository.findById(paymentId).orElseThrow().getStatus();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,53 @@
+package com.adeo.demo.payment.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.adeo.demo.payment.backend.persistence.PaymentRepository;
+import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+import com.adeo.demo.payment.backend.web.dto.PaymentPatchDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * With the processing queue full, moving a payment into PENDING is rejected and rolled back, so that no payment
+ * is left PENDING without being queued. Processing workers are disabled so that the queue stays full.
+ */
+@SpringBootTest(properties = {
+        "order.service.notifications.enabled=false",
+        "payments.processing.workers=0",
+        "payments.processing.queue-capacity=1"
+})
+class PaymentQueueFullTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentProcessingPipeline processingPipeline;
+
+    @Test
+    void transitionsIntoPendingAreRolledBackWhenTheQueueIsFull() {
+        Long failedId = paymentService.createPayment(new PaymentDto(
+                null, 4000L, "Failed", LocalDate.of(2025, 1, 1), 10.0, PaymentStatus.FAILED)).getPaymentId();
+        // Fills the queue, nothing takes it out
+        processingPipeline.onPaymentProcessingRequested(new PaymentProcessingRequestedEvent(-1L));
+
+        assertThatThrownBy(() -> paymentService.retryPayment(failedId)).isInstanceOf(PaymentQueueFullException.class);
+        assertThatThrownBy(() -> paymentService.patchPayment(
+                failedId, new PaymentPatchDto(null, null, null, PaymentStatus.PENDING)))
+                .isInstanceOf(PaymentQueueFullException.class);
+        assertThatThrownBy(() -> paymentService.updatePaymentStatuses(
+                List.of(failedId), PaymentStatus.FAILED, PaymentStatus.PENDING))
+                .isInstanceOf(PaymentQueueFullException.class);
+
+        assertThat(paymentRepository.findById(failedId).orElseThrow().getStatus()).isEqualTo(PaymentStatus.FAILED);
+    }
+}
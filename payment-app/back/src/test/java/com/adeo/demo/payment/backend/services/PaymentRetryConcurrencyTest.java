@@ -0,0 +1,101 @@
+package com.adeo.demo.payment.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.adeo.demo.payment.backend.persistence.Payment;
+import com.adeo.demo.payment.backend.persistence.PaymentRepository;
+import com.adeo.demo.payment.backend.web.dto.PaymentDto;
+import com.adeo.demo.payment.backend.web.dto.enums.PaymentStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Many threads retry the same failed payments at once. Each payment must be retried exactly once: one call
+ * reports the retry as applied, all the others find it already done. Processing workers are disabled so that
+ * retried payments stay PENDING.
+ */
+@SpringBootTest(properties = {
+        "order.service.notifications.enabled=false",
+        "payments.processing.workers=0"
+})
+class PaymentRetryConcurrencyTest {
+
+    private static final int PAYMENTS = 20;
+    private static final int CALLS_PER_PAYMENT = 8;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void concurrentRetriesHaveExactlyOneWinner() throws InterruptedException {
+        List<Long> paymentIds = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            paymentIds.add(paymentService.createPayment(new PaymentDto(
+                    null, 1000L + i, "Retry " + i, LocalDate.of(2025, 1, 1), 10.0, PaymentStatus.FAILED)).getPaymentId());
+        }
+
+        Map<Long, AtomicInteger> applied = new ConcurrentHashMap<>();
+        Queue<PaymentDto> returned = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (Long paymentId : paymentIds) {
+                applied.put(paymentId, new AtomicInteger());
+                for (int i = 0; i < CALLS_PER_PAYMENT; i++) {
+                    executor.submit(() -> {
+                        start.await();
+                        try {
+                            PaymentRetry retry = paymentService.retryPayment(paymentId);
+                            if (retry.applied()) {
+                                applied.get(paymentId).incrementAndGet();
+                            }
+                            returned.add(retry.payment());
+                        } catch (Throwable e) {
+                            unexpected.add(e);
+                        }
+                        return null;
+                    });
+                }
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        }
+
+        assertThat(unexpected).isEmpty();
+        assertThat(returned).hasSize(PAYMENTS * CALLS_PER_PAYMENT)
+                .allSatisfy(payment -> assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING));
+        for (Long paymentId : paymentIds) {
+            assertThat(applied.get(paymentId)).hasValue(1);
+            Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+            assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        }
+    }
+
+    @Test
+    void retryOfAPaymentThatIsNotFailedIsNotApplied() {
+        Long paymentId = paymentService.createPayment(new PaymentDto(
+                null, 2000L, "Completed", LocalDate.of(2025, 1, 1), 10.0, PaymentStatus.COMPLETED)).getPaymentId();
+
+        PaymentRetry retry = paymentService.retryPayment(paymentId);
+
+        assertThat(retry.applied()).isFalse();
+        assertThat(retry.payment().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+    }
+}